@@ -0,0 +1,25 @@
+package io.jeannyil;
+
+import io.smallrye.mutiny.TimeoutException;
+
+/**
+ * Raised when the budget of a request ({@link Deadline}) runs out before an upstream call completes.
+ * Extends Mutiny's {@link TimeoutException} so existing timeout handling applies to it.
+ */
+public class DeadlineExceededException extends TimeoutException {
+
+    private final String route;
+
+    public DeadlineExceededException(String route) {
+        this.route = route;
+    }
+
+    public String route() {
+        return route;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Deadline exceeded for " + route;
+    }
+}
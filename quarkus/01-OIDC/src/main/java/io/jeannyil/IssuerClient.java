@@ -0,0 +1,183 @@
+package io.jeannyil;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.mutiny.core.buffer.Buffer;
+import io.vertx.mutiny.core.http.HttpClient;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Per-issuer bundle owned by {@link IssuerRegistry}: a dedicated, size-limited HTTP connection pool
+ * and a cached discovery document, plus the bookkeeping needed for idle and LRU eviction.
+ */
+public class IssuerClient {
+
+    /**
+     * Discovery document as returned by the issuer.
+     * @param statusCode HTTP status of the discovery request
+     * @param body raw JSON body
+     * @param fromCache whether the document was served without calling the issuer
+     */
+    public record Discovery(int statusCode, String body, boolean fromCache) {
+    }
+
+    private record CachedDiscovery(Discovery discovery, long expiresAt) {
+    }
+
+    private final String issuer;
+    private final HttpClient httpClient;
+    private final long discoveryTtlMillis;
+    private final Duration discoveryTimeout;
+    // Timeout of calls made outside any request deadline
+    private final Duration requestTimeout;
+    // Shared by all issuers of the same upstream target (see SaturationMetrics)
+    private final LongAdder upstreamInFlight;
+    // Resolves the client currently registered for an issuer, used when this one was evicted before a call started
+    private final Function<String, IssuerClient> successor;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicReference<Uni<Discovery>> discoveryFetch = new AtomicReference<>();
+    private volatile CachedDiscovery cachedDiscovery;
+    private volatile boolean retired;
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    IssuerClient(String issuer, HttpClient httpClient, long discoveryTtlMillis, Duration discoveryTimeout,
+                 Duration requestTimeout, LongAdder upstreamInFlight, Function<String, IssuerClient> successor) {
+        this.issuer = issuer;
+        this.httpClient = httpClient;
+        this.discoveryTtlMillis = discoveryTtlMillis;
+        this.discoveryTimeout = discoveryTimeout;
+        this.requestTimeout = requestTimeout;
+        this.upstreamInFlight = upstreamInFlight;
+        this.successor = successor;
+    }
+
+    public String issuer() {
+        return issuer;
+    }
+
+    /**
+     * Sends a request to an endpoint of this issuer over the issuer's pool, on behalf of the request
+     * being processed: the call is bounded by its {@link Deadline}, which is forwarded to the issuer
+     * (or by {@code issuers.http.request-timeout} outside a request).
+     * @param hop short name of the proxy hop, reported in JFR events
+     * @param body request body, or {@code null} for none
+     */
+    public Uni<UpstreamExchange.Result> send(String hop, HttpMethod method, String url,
+                                             Map<String, String> headers, Buffer body) {
+        Deadline deadline = Deadline.current().orElse(null);
+        if (deadline == null) {
+            return send(hop, method, url, headers, body, requestTimeout);
+        }
+        return call(client -> UpstreamExchange.send(client, hop, method, url, headers, body,
+                deadline, deadline.remainingMillis()), true);
+    }
+
+    /**
+     * Sends a request shared by several requests (no request deadline) over the issuer's pool.
+     * @param timeout timeout of the call; the request is reset when it expires
+     */
+    public Uni<UpstreamExchange.Result> send(String hop, HttpMethod method, String url,
+                                             Map<String, String> headers, Buffer body, Duration timeout) {
+        return call(client -> UpstreamExchange.send(client, hop, method, url, headers, body,
+                null, timeout.toMillis()), true);
+    }
+
+    /**
+     * Runs an upstream call on this issuer's pool. In-flight calls keep a retired client open
+     * until they complete, so eviction never cuts a request short. A call starting after the client
+     * was retired (evicted between {@link IssuerRegistry#forIssuer} and the call) runs on the issuer's
+     * current client instead of on a pool that may already be closed.
+     */
+    private <T> Uni<T> call(Function<HttpClient, Uni<T>> upstreamCall, boolean redirectIfRetired) {
+        return Uni.createFrom().deferred(() -> {
+            inFlight.incrementAndGet();
+            if (retired && redirectIfRetired) {
+                releaseClient();
+                return successor.apply(issuer).call(upstreamCall, false);
+            }
+            upstreamInFlight.increment();
+            lastUsed = System.currentTimeMillis();
+            return upstreamCall.apply(httpClient).onTermination().invoke(this::release);
+        });
+    }
+
+    /**
+     * Returns the discovery document, fetching it at most once per {@code issuers.discovery.ttl}.
+     * Concurrent cache misses share a single request, bounded by {@code issuers.discovery.timeout};
+     * only successful responses are cached. Each caller waits for the shared request only until its own
+     * {@link Deadline}.
+     */
+    public Uni<Discovery> discovery() {
+        CachedDiscovery cached = cachedDiscovery;
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            lastUsed = System.currentTimeMillis();
+            return Uni.createFrom().item(cached.discovery());
+        }
+        return Deadline.enforce(sharedDiscoveryFetch());
+    }
+
+    private Uni<Discovery> sharedDiscoveryFetch() {
+        Uni<Discovery> current = discoveryFetch.get();
+        if (current != null) {
+            return current;
+        }
+        // No request deadline: the fetch is shared, so the discovery timeout resets the request if the issuer hangs
+        Uni<Discovery> fetch = send("discovery", HttpMethod.GET, issuer + "/.well-known/openid-configuration",
+                        Map.of(), null, discoveryTimeout)
+                .map(result -> new Discovery(result.statusCode(), result.body(), false))
+                .invoke(discovery -> {
+                    if (discovery.statusCode() == 200) {
+                        cachedDiscovery = new CachedDiscovery(
+                                new Discovery(200, discovery.body(), true),
+                                System.currentTimeMillis() + discoveryTtlMillis);
+                    }
+                })
+                .onTermination().invoke(() -> discoveryFetch.set(null))
+                .memoize().indefinitely();
+        return discoveryFetch.compareAndSet(null, fetch) ? fetch : sharedDiscoveryFetch();
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    long idleMillis() {
+        return inFlight.get() > 0 ? 0 : System.currentTimeMillis() - lastUsed;
+    }
+
+    /**
+     * Marks the client as evicted. The pool is closed immediately if idle, otherwise by the last in-flight call.
+     */
+    void retire() {
+        retired = true;
+        if (inFlight.get() == 0) {
+            close();
+        }
+    }
+
+    private void release() {
+        upstreamInFlight.decrement();
+        releaseClient();
+    }
+
+    private void releaseClient() {
+        if (inFlight.decrementAndGet() == 0 && retired) {
+            close();
+        }
+    }
+
+    private void close() {
+        if (closed.compareAndSet(false, true)) {
+            httpClient.closeAndForget();
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package io.jeannyil;
 
+import io.smallrye.mutiny.TimeoutException;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerRequest;
-import io.vertx.mutiny.core.Vertx;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
 import io.vertx.mutiny.core.buffer.Buffer;
-import io.vertx.mutiny.ext.web.client.WebClient;
-import jakarta.annotation.PostConstruct;
 import jakarta.annotation.security.PermitAll;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
@@ -18,6 +19,8 @@ import org.jboss.logging.Logger;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
 
 @Path("/api")
@@ -28,15 +31,20 @@ public class OIDCProxyResource {
     @ConfigProperty(name = "keycloak.issuer", defaultValue = "http://localhost:8080/realms/demo")
     String keycloakIssuer;
 
-    @Inject
-    Vertx vertx;
+    @ConfigProperty(name = "keycloak.url", defaultValue = "http://localhost:8080")
+    String keycloakUrl;
 
-    private WebClient webClient;
+    @ConfigProperty(name = "bootstrap.timeout.discovery", defaultValue = "2s")
+    Duration discoveryTimeout;
 
-    @PostConstruct
-    void initialize() {
-        this.webClient = WebClient.create(vertx);
-    }
+    @ConfigProperty(name = "bootstrap.timeout.userinfo", defaultValue = "2s")
+    Duration userinfoTimeout;
+
+    @Inject
+    IssuerRegistry issuerRegistry;
+
+    @Inject
+    UpstreamHealthTracker healthTracker;
 
     // Config endpoint to provide default issuer to UI
     @GET
@@ -47,6 +55,69 @@ public class OIDCProxyResource {
         return Response.ok(Map.of("issuer", keycloakIssuer)).build();
     }
 
+    // Page-load bootstrap - config, cached discovery and (with a bearer token) userinfo resolved concurrently
+    // in one round trip; each part has its own timeout and a slow or failed part does not fail the others
+    @GET
+    @Path("/bootstrap")
+    @PermitAll
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> bootstrap(
+            @QueryParam("issuer") String issuer,
+            @QueryParam("userinfo_endpoint") String userinfoEndpoint,
+            @Context HttpServerRequest serverRequest) {
+
+        String resolvedIssuer = issuer != null ? issuer : keycloakIssuer;
+        String authHeader = serverRequest.getHeader("Authorization");
+        String userinfoUrl = userinfoEndpoint != null ? userinfoEndpoint : resolvedIssuer + "/protocol/openid-connect/userinfo";
+        LOG.infof("GET /api/bootstrap → %s", resolvedIssuer);
+        LOG.infof("  └─ userinfo: %s", authHeader != null ? "Bearer token present" : "skipped (no token)");
+
+        Uni<IssuerClient.Discovery> discoveryFetch = issuerRegistry.discovery(issuer).orElse(null);
+        if (discoveryFetch == null) {
+            return Uni.createFrom().item(issuerNotAllowed(issuer));
+        }
+        IssuerClient userinfoClient = null;
+        if (authHeader != null) {
+            userinfoClient = issuerRegistry.forEndpoint(userinfoUrl).orElse(null);
+            if (userinfoClient == null) {
+                return Uni.createFrom().item(issuerNotAllowed(userinfoUrl));
+            }
+        }
+
+        long started = System.nanoTime();
+        String discoveryUrl = resolvedIssuer + "/.well-known/openid-configuration";
+        Uni<JsonObject> discovery = bootstrapPart("discovery", discoveryTimeout, discoveryFetch
+                .onItem().invoke(d -> {
+                    if (!d.fromCache()) {
+                        recordKeycloakResponse(discoveryUrl, d.statusCode());
+                    }
+                })
+                .onFailure().invoke(e -> recordKeycloakFailure(discoveryUrl, e))
+                .onItem().transform(d -> partResult(d.statusCode(), d.body()).put("cached", d.fromCache())));
+
+        Uni<JsonObject> userinfo = authHeader == null
+                ? Uni.createFrom().item(new JsonObject().put("status", "skipped"))
+                : bootstrapPart("userinfo", userinfoTimeout, userinfoClient
+                        .send("userinfo", HttpMethod.GET, userinfoUrl, Map.of("Authorization", authHeader), null)
+                        .onItem().invoke(r -> recordKeycloakResponse(userinfoUrl, r.statusCode()))
+                        .onFailure().invoke(e -> recordKeycloakFailure(userinfoUrl, e))
+                        .onItem().transform(r -> partResult(r.statusCode(), r.body())));
+
+        return Uni.combine().all().unis(discovery, userinfo).asTuple()
+                .onItem().transform(parts -> ResponseMappingEvent.record("bootstrap", () -> {
+                    long elapsedMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+                    LOG.infof("  └─ ✓ Bootstrap resolved in %dms (discovery: %s, userinfo: %s)", elapsedMs,
+                            parts.getItem1().getString("status"), parts.getItem2().getString("status"));
+                    JsonObject document = new JsonObject()
+                            .put("issuer", resolvedIssuer)
+                            .put("config", new JsonObject().put("issuer", keycloakIssuer))
+                            .put("discovery", parts.getItem1())
+                            .put("userinfo", parts.getItem2())
+                            .put("elapsedMs", elapsedMs);
+                    return Response.ok(document.encode()).build();
+                }));
+    }
+
     // Proxy endpoint for Keycloak discovery - enables distributed tracing
     @GET
     @Path("/keycloak/discovery")
@@ -55,16 +126,25 @@ public class OIDCProxyResource {
     public Uni<Response> getDiscovery(@QueryParam("issuer") String issuer) {
         String discoveryUrl = (issuer != null ? issuer : keycloakIssuer) + "/.well-known/openid-configuration";
         LOG.infof("GET /api/keycloak/discovery → %s", discoveryUrl);
+
+        Uni<IssuerClient.Discovery> discoveryFetch = issuerRegistry.discovery(issuer).orElse(null);
+        if (discoveryFetch == null) {
+            return Uni.createFrom().item(issuerNotAllowed(issuer));
+        }
         
-        return webClient.getAbs(discoveryUrl)
-                .send()
-                .onItem().transform(response -> {
-                    LOG.info("  └─ ✓ Discovery loaded successfully");
-                    return Response.status(response.statusCode())
-                            .entity(response.bodyAsString())
+        return discoveryFetch
+                .onItem().transform(discovery -> ResponseMappingEvent.record("discovery", () -> {
+                    if (!discovery.fromCache()) {
+                        recordKeycloakResponse(discoveryUrl, discovery.statusCode());
+                    }
+                    LOG.infof("  └─ ✓ Discovery loaded successfully%s", discovery.fromCache() ? " (cached)" : "");
+                    return Response.status(discovery.statusCode())
+                            .entity(discovery.body())
                             .build();
-                })
+                }))
+                .onFailure(DeadlineExceededException.class).recoverWithItem(e -> deadlineExceeded("discovery"))
                 .onFailure().recoverWithItem(e -> {
+                    recordKeycloakFailure(discoveryUrl, e);
                     LOG.errorf("  └─ ✗ Error fetching discovery: %s", e.getMessage());
                     return Response.status(500)
                             .entity("{\"error\": \"Error fetching discovery\"}")
@@ -84,6 +164,11 @@ public class OIDCProxyResource {
         
         LOG.infof("POST /api/keycloak/token → %s", tokenEndpoint);
         LOG.infof("  └─ grant_type: %s", grantType);
+
+        IssuerClient issuerClient = issuerRegistry.forEndpoint(tokenEndpoint).orElse(null);
+        if (issuerClient == null) {
+            return Uni.createFrom().item(issuerNotAllowed(tokenEndpoint));
+        }
         
         StringBuilder formData = new StringBuilder();
         formData.append("grant_type=").append(URLEncoder.encode(grantType, StandardCharsets.UTF_8));
@@ -104,10 +189,11 @@ public class OIDCProxyResource {
             formData.append("&scope=").append(URLEncoder.encode(params.get("scope"), StandardCharsets.UTF_8));
         }
         
-        return webClient.postAbs(tokenEndpoint)
-                .putHeader("Content-Type", "application/x-www-form-urlencoded")
-                .sendBuffer(Buffer.buffer(formData.toString()))
-                .onItem().transform(response -> {
+        return issuerClient.send("token", HttpMethod.POST, tokenEndpoint,
+                        Map.of("Content-Type", "application/x-www-form-urlencoded"),
+                        Buffer.buffer(formData.toString()))
+                .onItem().transform(response -> ResponseMappingEvent.record("token", () -> {
+                    recordKeycloakResponse(tokenEndpoint, response.statusCode());
                     if (response.statusCode() == 200) {
                         LOG.info("  └─ ✓ Token exchange successful");
                     } else {
@@ -116,10 +202,12 @@ public class OIDCProxyResource {
                     
                     return Response.status(response.statusCode())
                             .header("Content-Type", "application/json")
-                            .entity(response.bodyAsString() != null ? response.bodyAsString() : "{}")
+                            .entity(!response.body().isEmpty() ? response.body() : "{}")
                             .build();
-                })
+                }))
+                .onFailure(DeadlineExceededException.class).recoverWithItem(e -> deadlineExceeded("token exchange"))
                 .onFailure().recoverWithItem(e -> {
+                    recordKeycloakFailure(tokenEndpoint, e);
                     LOG.errorf(e, "  └─ ✗ Error exchanging token: %s", e.getMessage());
                     return Response.status(500)
                             .header("Content-Type", "application/json")
@@ -139,14 +227,20 @@ public class OIDCProxyResource {
         
         String authHeader = serverRequest.getHeader("Authorization");
         LOG.infof("GET /api/keycloak/userinfo → %s", userinfoEndpoint);
+
+        IssuerClient issuerClient = issuerRegistry.forEndpoint(userinfoEndpoint).orElse(null);
+        if (issuerClient == null) {
+            return Uni.createFrom().item(issuerNotAllowed(userinfoEndpoint));
+        }
         
-        var request = webClient.getAbs(userinfoEndpoint);
+        Map<String, String> headers = new HashMap<>();
         if (authHeader != null) {
-            request.putHeader("Authorization", authHeader);
+            headers.put("Authorization", authHeader);
         }
         
-        return request.send()
-                .onItem().transform(response -> {
+        return issuerClient.send("userinfo", HttpMethod.GET, userinfoEndpoint, headers, null)
+                .onItem().transform(response -> ResponseMappingEvent.record("userinfo", () -> {
+                    recordKeycloakResponse(userinfoEndpoint, response.statusCode());
                     if (response.statusCode() == 200) {
                         LOG.info("  └─ ✓ UserInfo retrieved successfully");
                     } else {
@@ -154,10 +248,12 @@ public class OIDCProxyResource {
                     }
                     
                     return Response.status(response.statusCode())
-                            .entity(response.bodyAsString())
+                            .entity(response.body())
                             .build();
-                })
+                }))
+                .onFailure(DeadlineExceededException.class).recoverWithItem(e -> deadlineExceeded("userinfo"))
                 .onFailure().recoverWithItem(e -> {
+                    recordKeycloakFailure(userinfoEndpoint, e);
                     LOG.errorf("  └─ ✗ Error fetching userinfo: %s", e.getMessage());
                     return Response.status(500)
                             .entity("{\"error\": \"Error fetching userinfo\"}")
@@ -176,6 +272,10 @@ public class OIDCProxyResource {
         
         LOG.infof("GET /api/keycloak/logout → %s", endSessionEndpoint);
         LOG.infof("  └─ id_token_hint: %s", idTokenHint != null ? "present" : "missing");
+
+        if (!issuerRegistry.isAllowedEndpoint(endSessionEndpoint)) {
+            return issuerNotAllowed(endSessionEndpoint);
+        }
         
         String logoutUrl = endSessionEndpoint + "?post_logout_redirect_uri=" + 
                 URLEncoder.encode(postLogoutRedirectUri, StandardCharsets.UTF_8);
@@ -186,4 +286,58 @@ public class OIDCProxyResource {
         LOG.info("  └─ Redirecting to Keycloak logout");
         return Response.seeOther(URI.create(logoutUrl)).build();
     }
+
+    // Bounds one bootstrap part and turns a timeout or failure into a partial result
+    private Uni<JsonObject> bootstrapPart(String part, Duration timeout, Uni<JsonObject> upstream) {
+        return upstream
+                .ifNoItem().after(timeout).fail()
+                .onFailure(TimeoutException.class).recoverWithItem(e -> {
+                    LOG.warnf("  └─ ✗ Bootstrap %s timed out after %dms", part, timeout.toMillis());
+                    return new JsonObject().put("status", "timeout");
+                })
+                .onFailure().recoverWithItem(e -> {
+                    LOG.errorf("  └─ ✗ Bootstrap %s failed: %s", part, e.getMessage());
+                    return new JsonObject().put("status", "error").put("error", "Error fetching " + part);
+                });
+    }
+
+    private static JsonObject partResult(int statusCode, String body) {
+        JsonObject result = new JsonObject()
+                .put("status", statusCode == 200 ? "ok" : "error")
+                .put("statusCode", statusCode);
+        try {
+            return result.put("body", body == null || body.isEmpty() ? null : new JsonObject(body));
+        } catch (DecodeException e) {
+            return result.put("body", body);
+        }
+    }
+
+    private Response deadlineExceeded(String call) {
+        LOG.warnf("  └─ ✗ Deadline exceeded during %s", call);
+        return Response.status(Response.Status.GATEWAY_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .entity(RequestDeadlines.EXCEEDED_BODY)
+                .build();
+    }
+
+    private Response issuerNotAllowed(String target) {
+        LOG.warnf("  └─ ✗ Issuer not allowed: %s", target);
+        return Response.status(Response.Status.FORBIDDEN)
+                .header("Content-Type", "application/json")
+                .entity("{\"error\": \"Issuer not allowed\"}")
+                .build();
+    }
+
+    // Only traffic to the configured Keycloak counts towards its health (callers may point at any issuer)
+    private void recordKeycloakResponse(String url, int statusCode) {
+        if (url != null && url.startsWith(keycloakUrl)) {
+            healthTracker.recordResponse(UpstreamHealthTracker.KEYCLOAK, statusCode);
+        }
+    }
+
+    private void recordKeycloakFailure(String url, Throwable failure) {
+        if (url != null && url.startsWith(keycloakUrl)) {
+            healthTracker.recordFailure(UpstreamHealthTracker.KEYCLOAK, failure);
+        }
+    }
 }
@@ -0,0 +1,133 @@
+package io.jeannyil;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives every HTTP request a {@link Deadline}: the budget sent by the client in the
+ * {@value Deadline#HEADER} header (milliseconds, capped by {@code deadline.max}), or else the
+ * per-route budget from {@code deadline.routes} ({@code path=duration} entries), or {@code deadline.default}.
+ * <p>
+ * Requests arriving with no budget left are answered 504 without any work. Requests whose client goes
+ * away before the response is sent are counted as {@code deadline.cancelled}; Quarkus REST cancels their
+ * {@code Uni}, which aborts upstream calls still in progress. Upstream calls cut short by the deadline are
+ * counted as {@code deadline.expired}.
+ */
+@ApplicationScoped
+public class RequestDeadlines {
+
+    private static final Logger LOG = Logger.getLogger(RequestDeadlines.class);
+
+    static final String OTHER = "other";
+    static final String EXCEEDED_BODY = "{\"error\": \"Deadline exceeded\"}";
+
+    private record RouteCounters(Counter expired, Counter cancelled) {
+    }
+
+    @ConfigProperty(name = "deadline.default", defaultValue = "10s")
+    Duration defaultBudget;
+
+    @ConfigProperty(name = "deadline.max", defaultValue = "30s")
+    Duration maxBudget;
+
+    @ConfigProperty(name = "deadline.routes")
+    Optional<List<String>> routes;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<String, Duration> budgets = new ConcurrentHashMap<>();
+    private final Map<String, RouteCounters> counters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initialize() {
+        for (String entry : routes.orElse(List.of())) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("deadline.routes entries must be path=duration, got: " + entry);
+            }
+            budgets.put(entry.substring(0, separator).trim(),
+                    DurationConverter.parseDuration(entry.substring(separator + 1).trim()));
+        }
+        budgets.keySet().forEach(this::counters);
+        counters(OTHER);
+    }
+
+    void registerDeadlineHandler(@Observes Router router) {
+        router.route().order(Integer.MIN_VALUE + 1).handler(this::startRequest);
+        router.route().order(Integer.MIN_VALUE + 1).failureHandler(ctx -> {
+            if (ctx.failure() instanceof DeadlineExceededException && !ctx.response().headWritten()) {
+                respondExceeded(ctx);
+            } else {
+                ctx.next();
+            }
+        });
+    }
+
+    private void startRequest(RoutingContext ctx) {
+        String path = ctx.normalizedPath();
+        String route = budgets.containsKey(path) ? path : OTHER;
+        RouteCounters routeCounters = counters(route);
+        Deadline deadline = new Deadline(route, System.nanoTime() + budget(path, ctx.request().getHeader(Deadline.HEADER)).toNanos(),
+                routeCounters.expired());
+        deadline.bind();
+        ctx.addEndHandler(result -> {
+            if (result.failed()) {
+                routeCounters.cancelled().increment();
+                LOG.debugf("  └─ ✗ Client went away before the response to %s", path);
+            }
+        });
+        if (deadline.isExpired()) {
+            routeCounters.expired().increment();
+            LOG.warnf("  └─ ✗ %s arrived with no time budget left", path);
+            respondExceeded(ctx);
+            return;
+        }
+        ctx.next();
+    }
+
+    private Duration budget(String path, String header) {
+        if (header != null) {
+            try {
+                return Duration.ofMillis(Math.min(Long.parseLong(header.trim()), maxBudget.toMillis()));
+            } catch (NumberFormatException e) {
+                LOG.debugf("Ignoring invalid %s header: %s", Deadline.HEADER, header);
+            }
+        }
+        return budgets.getOrDefault(path, defaultBudget);
+    }
+
+    private RouteCounters counters(String route) {
+        return counters.computeIfAbsent(route, r -> new RouteCounters(
+                Counter.builder("deadline.expired")
+                        .description("Requests or upstream calls cut short because the request deadline passed")
+                        .tag("route", r)
+                        .register(registry),
+                Counter.builder("deadline.cancelled")
+                        .description("Requests abandoned by the client before the response was sent")
+                        .tag("route", r)
+                        .register(registry)));
+    }
+
+    private static void respondExceeded(RoutingContext ctx) {
+        ctx.response()
+                .setStatusCode(504)
+                .putHeader("Content-Type", "application/json")
+                .end(EXCEEDED_BODY);
+    }
+}
@@ -0,0 +1,41 @@
+package io.jeannyil;
+
+import jakarta.ws.rs.core.Response;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.Supplier;
+
+@Name("io.jeannyil.ResponseMapping")
+@Label("Response Mapping")
+@Description("Time to map an upstream result to the proxy response")
+@Category({"Keycloak Playground", "Proxy"})
+@StackTrace(false)
+public class ResponseMappingEvent extends Event {
+
+    @Label("Hop")
+    public String hop;
+
+    @Label("Status Code")
+    public int statusCode;
+
+    /**
+     * Runs the mapping of a proxy hop and records how long it took.
+     */
+    static Response record(String hop, Supplier<Response> mapping) {
+        ResponseMappingEvent event = new ResponseMappingEvent();
+        event.begin();
+        Response response = mapping.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.hop = hop;
+            event.statusCode = response.getStatus();
+            event.commit();
+        }
+        return response;
+    }
+}
@@ -0,0 +1,22 @@
+package io.jeannyil;
+
+import io.vertx.core.http.HttpMethod;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.jeannyil.UpstreamBodyRead")
+@Label("Upstream Body Read")
+@Description("Time to read the upstream response body after the headers were received")
+public class UpstreamBodyReadEvent extends UpstreamPhaseEvent {
+
+    @Label("Body Size")
+    @DataAmount
+    public long bodySize;
+
+    void complete(String hop, HttpMethod method, String url, long bodySize) {
+        this.bodySize = bodySize;
+        complete(hop, method, url);
+    }
+}
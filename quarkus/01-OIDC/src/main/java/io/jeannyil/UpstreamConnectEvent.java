@@ -0,0 +1,11 @@
+package io.jeannyil;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.jeannyil.UpstreamConnect")
+@Label("Upstream Connect")
+@Description("Time to obtain a connection to the upstream (pooled or newly established)")
+public class UpstreamConnectEvent extends UpstreamPhaseEvent {
+}
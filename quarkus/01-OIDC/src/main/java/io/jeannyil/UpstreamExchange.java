@@ -0,0 +1,90 @@
+package io.jeannyil;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.mutiny.core.buffer.Buffer;
+import io.vertx.mutiny.core.http.HttpClient;
+import io.vertx.mutiny.core.http.HttpClientRequest;
+
+import java.util.Map;
+
+/**
+ * Sends a request to an upstream phase by phase so that each phase (connect, request write,
+ * time to first byte, body read) is visible as a JFR event.
+ * <p>
+ * Cancelling the returned {@code Uni} (client gone, deadline passed) resets the request, so the
+ * upstream stops working on it instead of the response being read and thrown away. This includes a
+ * request still waiting for a pooled connection: it is reset as soon as the pool hands it out.
+ * Every request also carries a Vert.x timeout, so a hung upstream is cut off even if nobody cancels.
+ */
+final class UpstreamExchange {
+
+    /**
+     * Upstream response, fully read.
+     * @param statusCode HTTP status code
+     * @param body response body as a string
+     */
+    record Result(int statusCode, String body) {
+    }
+
+    private UpstreamExchange() {
+    }
+
+    /**
+     * @param hop short name of the proxy hop, used to group events (e.g. {@code token})
+     * @param body request body, or {@code null} for none
+     * @param deadline budget to enforce and forward in {@value Deadline#HEADER}, or {@code null} for none
+     * @param timeoutMillis timeout of the request from connection acquisition to the last byte
+     */
+    static Uni<Result> send(HttpClient client, String hop, HttpMethod method, String url,
+                            Map<String, String> headers, Buffer body, Deadline deadline, long timeoutMillis) {
+        Uni<Result> exchange = Uni.createFrom().deferred(() -> {
+            // Always set a header map: the instrumented client reads it even when no header is sent
+            RequestOptions options = new RequestOptions().setMethod(method).setAbsoluteURI(url)
+                    .setHeaders(MultiMap.caseInsensitiveMultiMap())
+                    .setTimeout(Math.max(1, timeoutMillis));
+            headers.forEach(options::putHeader);
+            if (deadline != null) {
+                options.putHeader(Deadline.HEADER, String.valueOf(deadline.remainingMillis()));
+            }
+
+            UpstreamConnectEvent connect = new UpstreamConnectEvent();
+            connect.begin();
+            // The core future stays reachable after cancellation, when Mutiny no longer delivers the request
+            Future<io.vertx.core.http.HttpClientRequest> pending = client.getDelegate().request(options);
+            return Uni.createFrom().completionStage(pending.toCompletionStage())
+                    .map(HttpClientRequest::newInstance)
+                    .flatMap(request -> exchange(request, hop, method, url, body, connect))
+                    .onCancellation().invoke(() -> pending.onSuccess(io.vertx.core.http.HttpClientRequest::reset));
+        });
+        return deadline != null ? deadline.bound(exchange) : exchange;
+    }
+
+    private static Uni<Result> exchange(HttpClientRequest request, String hop, HttpMethod method, String url,
+                                        Buffer body, UpstreamConnectEvent connect) {
+        connect.complete(hop, method, url);
+        UpstreamRequestWriteEvent write = new UpstreamRequestWriteEvent();
+        write.begin();
+        return (body != null ? request.end(body) : request.end())
+                .flatMap(written -> {
+                    write.complete(hop, method, url);
+                    UpstreamFirstByteEvent firstByte = new UpstreamFirstByteEvent();
+                    firstByte.begin();
+                    return request.response()
+                            .invoke(response -> firstByte.complete(hop, method, url, response.statusCode()));
+                })
+                .flatMap(response -> {
+                    // Called from the response callback, before any body chunk is delivered
+                    UpstreamBodyReadEvent bodyRead = new UpstreamBodyReadEvent();
+                    bodyRead.begin();
+                    return response.body()
+                            .map(buffer -> {
+                                bodyRead.complete(hop, method, url, buffer.length());
+                                return new Result(response.statusCode(), buffer.toString());
+                            });
+                });
+    }
+}
@@ -0,0 +1,74 @@
+package io.jeannyil;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the most recent outcome of every call made to an upstream (Keycloak).
+ * Proxy endpoints record their real-traffic results here so that health checks
+ * can derive upstream health passively instead of calling the upstream on every probe.
+ */
+@ApplicationScoped
+public class UpstreamHealthTracker {
+
+    public static final String KEYCLOAK = "keycloak";
+
+    public static final String SOURCE_TRAFFIC = "traffic";
+    public static final String SOURCE_PROBE = "probe";
+
+    /**
+     * Latest known state of an upstream.
+     * @param up whether the upstream answered (any status below 500)
+     * @param detail HTTP status or failure message
+     * @param timestamp epoch millis of the observation
+     * @param source {@value #SOURCE_TRAFFIC} or {@value #SOURCE_PROBE}
+     */
+    public record Outcome(boolean up, String detail, long timestamp, String source) {
+
+        public long ageMillis() {
+            return System.currentTimeMillis() - timestamp;
+        }
+    }
+
+    private final Map<String, Outcome> outcomes = new ConcurrentHashMap<>();
+
+    /**
+     * Record a response received from an upstream while serving real traffic.
+     * Any status below 500 proves the upstream is reachable and serving requests.
+     */
+    public void recordResponse(String upstream, int statusCode) {
+        record(upstream, statusCode, SOURCE_TRAFFIC);
+    }
+
+    /**
+     * Record a transport-level failure (connection refused, timeout, ...) seen on real traffic.
+     */
+    public void recordFailure(String upstream, Throwable failure) {
+        record(upstream, failure, SOURCE_TRAFFIC);
+    }
+
+    Outcome record(String upstream, int statusCode, String source) {
+        Outcome outcome = new Outcome(statusCode < 500, "HTTP " + statusCode, System.currentTimeMillis(), source);
+        outcomes.put(upstream, outcome);
+        return outcome;
+    }
+
+    Outcome record(String upstream, Throwable failure, String source) {
+        Outcome outcome = new Outcome(false, String.valueOf(failure.getMessage()), System.currentTimeMillis(), source);
+        outcomes.put(upstream, outcome);
+        return outcome;
+    }
+
+    /**
+     * @return the latest outcome for the upstream, or {@code null} if it was never called
+     */
+    public Outcome latest(String upstream) {
+        return outcomes.get(upstream);
+    }
+
+    public Map<String, Outcome> snapshot() {
+        return Map.copyOf(outcomes);
+    }
+}
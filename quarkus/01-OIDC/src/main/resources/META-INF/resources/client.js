@@ -7,6 +7,13 @@ function loadDiscovery() {
     var issuer = getInput('input-issuer');
     setState('issuer', issuer);
 
+    // Already resolved by /api/bootstrap on page load
+    if (bootstrap.issuer === issuer && bootstrap.discovery && bootstrap.discovery.status === 'ok') {
+        setState('discovery', bootstrap.discovery.body);
+        setOutput('output-discovery', state.discovery);
+        return;
+    }
+
     var req = new XMLHttpRequest();
     req.onreadystatechange = function() {
         if (req.readyState === 4) {
@@ -176,6 +183,7 @@ function userInfo() {
 
 var steps = ['discovery', 'authentication', 'token', 'refresh', 'userinfo']
 var state = loadState();
+var bootstrap = {};
 
 function reset() {
     localStorage.removeItem('state');
@@ -310,15 +318,31 @@ function base64UrlDecode(input) {
 }
 
 function init() {
-    // Load default issuer from backend config
-    fetch('/api/config')
+    // Load config, discovery and (with a token) userinfo in a single round trip
+    var params = [];
+    if (state.issuer) {
+        params.push('issuer=' + encodeURIComponent(state.issuer));
+    }
+    if (state.discovery && state.discovery['userinfo_endpoint']) {
+        params.push('userinfo_endpoint=' + encodeURIComponent(state.discovery['userinfo_endpoint']));
+    }
+    var headers = state.accessToken ? { 'Authorization': 'Bearer ' + state.accessToken } : {};
+    fetch('/api/bootstrap' + (params.length ? '?' + params.join('&') : ''), { headers: headers })
         .then(response => response.json())
-        .then(config => {
-            if (config.issuer && !getInput('input-issuer')) {
-                setInput('input-issuer', config.issuer);
+        .then(result => {
+            bootstrap = result;
+            if (result.config && result.config.issuer && !getInput('input-issuer')) {
+                setInput('input-issuer', result.config.issuer);
+            }
+            if (state.discovery && result.discovery && result.discovery.status === 'ok') {
+                setState('discovery', result.discovery.body);
+                setOutput('output-discovery', state.discovery);
+            }
+            if (result.userinfo && result.userinfo.status === 'ok') {
+                setOutput('output-userInfoResponse', result.userinfo.body);
             }
         })
-        .catch(err => console.warn('Could not load config:', err));
+        .catch(err => console.warn('Could not load bootstrap:', err));
 
     step(state.step);
     if (state.discovery) {
@@ -0,0 +1,98 @@
+package io.jeannyil;
+
+import io.smallrye.mutiny.Uni;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedUpstreamHealthCheckTest {
+
+    private static final Duration AWAIT = Duration.ofSeconds(5);
+
+    // Probes answer with a fixed status and count how often the upstream was actually called
+    private static class CountingCheck extends CachedUpstreamHealthCheck {
+
+        final AtomicInteger probes = new AtomicInteger();
+        final int status;
+
+        CountingCheck(UpstreamHealthTracker tracker, Duration cacheInterval, int status) {
+            this.tracker = tracker;
+            this.cacheInterval = cacheInterval;
+            this.probeTimeout = Duration.ofSeconds(1);
+            this.status = status;
+        }
+
+        @Override
+        protected String name() {
+            return "Keycloak";
+        }
+
+        @Override
+        protected String upstream() {
+            return UpstreamHealthTracker.KEYCLOAK;
+        }
+
+        @Override
+        protected Uni<Integer> probe() {
+            probes.incrementAndGet();
+            return Uni.createFrom().item(status);
+        }
+    }
+
+    @Test
+    void freshTrafficOutcomeIsServedWithoutProbing() {
+        UpstreamHealthTracker tracker = new UpstreamHealthTracker();
+        tracker.recordResponse(UpstreamHealthTracker.KEYCLOAK, 200);
+        CountingCheck check = new CountingCheck(tracker, Duration.ofSeconds(30), 503);
+
+        HealthCheckResponse response = check.call().await().atMost(AWAIT);
+
+        assertEquals(HealthCheckResponse.Status.UP, response.getStatus());
+        assertEquals(UpstreamHealthTracker.SOURCE_TRAFFIC, response.getData().orElseThrow().get("source"));
+        assertEquals(0, check.probes.get());
+    }
+
+    @Test
+    void staleOutcomeTriggersProbe() throws InterruptedException {
+        UpstreamHealthTracker tracker = new UpstreamHealthTracker();
+        tracker.recordResponse(UpstreamHealthTracker.KEYCLOAK, 200);
+        CountingCheck check = new CountingCheck(tracker, Duration.ofMillis(1), 503);
+        Thread.sleep(5);
+
+        HealthCheckResponse response = check.call().await().atMost(AWAIT);
+
+        assertEquals(1, check.probes.get());
+        assertEquals(HealthCheckResponse.Status.DOWN, response.getStatus());
+        assertEquals(UpstreamHealthTracker.SOURCE_PROBE, response.getData().orElseThrow().get("source"));
+        assertEquals(UpstreamHealthTracker.SOURCE_PROBE, tracker.latest(UpstreamHealthTracker.KEYCLOAK).source());
+    }
+
+    @Test
+    void recordedFailureReportsDown() {
+        UpstreamHealthTracker tracker = new UpstreamHealthTracker();
+        tracker.recordFailure(UpstreamHealthTracker.KEYCLOAK, new IOException("Connection refused"));
+        CountingCheck check = new CountingCheck(tracker, Duration.ofSeconds(30), 200);
+
+        HealthCheckResponse response = check.call().await().atMost(AWAIT);
+
+        assertEquals(HealthCheckResponse.Status.DOWN, response.getStatus());
+        assertEquals("Connection refused", response.getData().orElseThrow().get("detail"));
+        assertEquals(0, check.probes.get());
+    }
+
+    @Test
+    void serverErrorsCountAsDown() {
+        UpstreamHealthTracker tracker = new UpstreamHealthTracker();
+
+        assertTrue(tracker.record(UpstreamHealthTracker.KEYCLOAK, 404, UpstreamHealthTracker.SOURCE_TRAFFIC).up());
+        assertFalse(tracker.record(UpstreamHealthTracker.KEYCLOAK, 502, UpstreamHealthTracker.SOURCE_TRAFFIC).up());
+        assertEquals("HTTP 502", tracker.latest(UpstreamHealthTracker.KEYCLOAK).detail());
+    }
+}
@@ -0,0 +1,203 @@
+package io.jeannyil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.core.http.HttpServer;
+import io.vertx.mutiny.core.http.HttpServerRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IssuerRegistryTest {
+
+    private static final Duration AWAIT = Duration.ofSeconds(5);
+
+    private final AtomicInteger discoveryRequests = new AtomicInteger();
+    // Requests to .../slow, answered when the test decides
+    private final Queue<HttpServerRequest> held = new ConcurrentLinkedQueue<>();
+
+    private Vertx vertx;
+    private String keycloak;
+    private IssuerRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+        HttpServer server = vertx.createHttpServer().requestHandler(request -> {
+            if (request.path().endsWith("/.well-known/openid-configuration")) {
+                discoveryRequests.incrementAndGet();
+                request.response().setStatusCode(404).endAndForget("{\"error\": \"Realm does not exist\"}");
+            } else if (request.path().endsWith("/slow")) {
+                held.add(request);
+            } else {
+                request.response().endAndForget("{}");
+            }
+        }).listenAndAwait(0);
+        keycloak = "http://localhost:" + server.actualPort();
+
+        SaturationMetrics saturationMetrics = new SaturationMetrics();
+        saturationMetrics.registry = new SimpleMeterRegistry();
+        registry = new IssuerRegistry();
+        registry.vertx = vertx;
+        registry.saturationMetrics = saturationMetrics;
+        registry.defaultIssuer = keycloak + "/realms/demo";
+        registry.allowedIssuers = Optional.empty();
+        registry.allowedIssuerPattern = Optional.of(Pattern.quote(keycloak) + "/realms/[^/]+");
+        registry.maxActive = 2;
+        registry.idleTimeout = Duration.ofMinutes(10);
+        registry.discoveryTtl = Duration.ofMinutes(5);
+        registry.discoveryNegativeTtl = Duration.ofMinutes(1);
+        registry.discoveryTimeout = AWAIT;
+        registry.maxPoolSize = 2;
+        registry.maxWaitQueueSize = 8;
+        registry.connectTimeout = AWAIT;
+        registry.requestTimeout = AWAIT;
+        registry.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        held.forEach(request -> request.response().endAndForget());
+        registry.shutdown();
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    void testLeastRecentlyUsedClientIsEvictedBeyondMaxActive() {
+        IssuerClient defaultClient = registry.forIssuer(null).orElseThrow();
+        IssuerClient a = client("a");
+        IssuerClient b = client("b");
+        assertSame(a, client("a"));
+
+        IssuerClient c = client("c");
+
+        assertTrue(b.isClosed());
+        assertFalse(a.isClosed());
+        assertFalse(c.isClosed());
+        assertNotSame(b, client("b"));
+        // The default issuer's client is not counted and never evicted
+        assertFalse(defaultClient.isClosed());
+        assertSame(defaultClient, registry.forIssuer(null).orElseThrow());
+    }
+
+    @Test
+    void testIdleClientsAreClosedUnlessACallIsInFlight() throws Exception {
+        IssuerClient defaultClient = registry.forIssuer(null).orElseThrow();
+        IssuerClient idle = client("a");
+        IssuerClient busy = client("b");
+        CompletableFuture<UpstreamExchange.Result> call = slowCall(busy, "b");
+
+        registry.idleTimeout = Duration.ofMillis(50);
+        Thread.sleep(100);
+        registry.evictIdle();
+
+        assertTrue(idle.isClosed());
+        assertFalse(busy.isClosed());
+        assertFalse(defaultClient.isClosed());
+        assertNotSame(idle, client("a"));
+
+        held.remove().response().endAndForget("{}");
+        assertEquals(200, call.get(AWAIT.toMillis(), TimeUnit.MILLISECONDS).statusCode());
+    }
+
+    @Test
+    void testRetiredClientFinishesItsInFlightCalls() throws Exception {
+        registry.maxActive = 1;
+        IssuerClient a = client("a");
+        CompletableFuture<UpstreamExchange.Result> call = slowCall(a, "a");
+
+        client("b");
+
+        assertFalse(a.isClosed());
+        held.remove().response().endAndForget("{}");
+        assertEquals(200, call.get(AWAIT.toMillis(), TimeUnit.MILLISECONDS).statusCode());
+        awaitCondition(a::isClosed);
+
+        // A call starting on the retired client runs on the issuer's current client
+        UpstreamExchange.Result late = a.send("test", HttpMethod.GET, keycloak + "/realms/a/protocol/openid-connect/certs",
+                Map.of(), null, AWAIT).await().atMost(AWAIT);
+        assertEquals(200, late.statusCode());
+    }
+
+    @Test
+    void testFailedDiscoveriesAreRememberedUpToTheBound() {
+        IssuerClient.Discovery first = discovery("unknown-0");
+        assertEquals(404, first.statusCode());
+        assertFalse(first.fromCache());
+        assertTrue(discovery("unknown-0").fromCache());
+        assertEquals(1, discoveryRequests.get());
+
+        for (int i = 1; i <= IssuerRegistry.MAX_FAILED_DISCOVERIES; i++) {
+            discovery("unknown-" + i);
+        }
+        assertEquals(IssuerRegistry.MAX_FAILED_DISCOVERIES + 1, discoveryRequests.get());
+
+        // The newest failures are still remembered, the oldest one was dropped to stay within the bound
+        assertTrue(discovery("unknown-" + IssuerRegistry.MAX_FAILED_DISCOVERIES).fromCache());
+        assertFalse(discovery("unknown-0").fromCache());
+        assertEquals(IssuerRegistry.MAX_FAILED_DISCOVERIES + 2, discoveryRequests.get());
+    }
+
+    @Test
+    void testEndpointPathsAreNormalizedBeforeTheAllowlistMatch() {
+        String realm = keycloak + "/realms/a";
+        assertEquals(realm, IssuerRegistry.issuerOf(realm + "/protocol/openid-connect/token"));
+        assertEquals(realm, IssuerRegistry.issuerOf(realm + "/./protocol/openid-connect/token"));
+        assertTrue(registry.isAllowedEndpoint(realm + "/protocol/openid-connect/token"));
+
+        assertFalse(registry.isAllowedEndpoint(realm + "/protocol/openid-connect/../../../../admin/realms/master/protocol/openid-connect/token"));
+        assertFalse(registry.isAllowedEndpoint(realm + "/../../other/protocol/openid-connect/token"));
+        assertNull(IssuerRegistry.issuerOf(keycloak + "/../realms/a/protocol/openid-connect/token"));
+        assertNull(IssuerRegistry.issuerOf(realm + "/%2e%2e/%2E%2E/admin/protocol/openid-connect/token"));
+        assertNull(IssuerRegistry.issuerOf(realm + "%2Fprotocol/openid-connect/token"));
+        assertNull(IssuerRegistry.issuerOf("not a url/protocol/openid-connect/token"));
+    }
+
+    private IssuerClient client(String realm) {
+        return registry.forIssuer(keycloak + "/realms/" + realm).orElseThrow();
+    }
+
+    private IssuerClient.Discovery discovery(String realm) {
+        return registry.discovery(keycloak + "/realms/" + realm).orElseThrow().await().atMost(AWAIT);
+    }
+
+    private CompletableFuture<UpstreamExchange.Result> slowCall(IssuerClient client, String realm) {
+        int before = held.size();
+        CompletableFuture<UpstreamExchange.Result> call = client.send("test", HttpMethod.GET,
+                keycloak + "/realms/" + realm + "/slow", Map.of(), null, AWAIT).subscribeAsCompletionStage();
+        awaitCondition(() -> held.size() > before);
+        return call;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + AWAIT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within " + AWAIT);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
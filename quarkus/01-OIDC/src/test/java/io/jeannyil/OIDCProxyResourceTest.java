@@ -4,7 +4,9 @@ import io.quarkus.test.junit.QuarkusTest;
 import org.junit.jupiter.api.Test;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.anyOf;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
 
 @QuarkusTest
 public class OIDCProxyResourceTest {
@@ -17,4 +19,46 @@ public class OIDCProxyResourceTest {
              .statusCode(200)
              .body(containsString("OpenID Connect Playground"));
     }
+
+    @Test
+    public void testDiscoveryRejectsUnknownIssuer() {
+        given()
+          .queryParam("issuer", "https://attacker.example.org/realms/demo")
+          .when().get("/api/keycloak/discovery")
+          .then()
+             .statusCode(403)
+             .body("error", is("Issuer not allowed"));
+    }
+
+    @Test
+    public void testTokenRejectsUnknownTokenEndpoint() {
+        given()
+          .contentType("application/json")
+          .body("{\"token_endpoint\": \"https://attacker.example.org/realms/demo/protocol/openid-connect/token\", \"grant_type\": \"authorization_code\"}")
+          .when().post("/api/keycloak/token")
+          .then()
+             .statusCode(403);
+    }
+
+    @Test
+    public void testBootstrapReturnsPartialResults() {
+        // Keycloak is unreachable in tests: discovery degrades to a partial result instead of failing the page load
+        given()
+          .when().get("/api/bootstrap")
+          .then()
+             .statusCode(200)
+             .body("config.issuer", is("https://sso.apps.example.com/realms/demo"))
+             .body("discovery.status", anyOf(is("error"), is("timeout")))
+             .body("userinfo.status", is("skipped"));
+    }
+
+    @Test
+    public void testBootstrapRejectsUnknownIssuer() {
+        given()
+          .queryParam("issuer", "https://attacker.example.org/realms/demo")
+          .when().get("/api/bootstrap")
+          .then()
+             .statusCode(403)
+             .body("error", is("Issuer not allowed"));
+    }
 }
@@ -0,0 +1,20 @@
+package io.jeannyil;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.hasItem;
+
+@QuarkusTest
+public class UpstreamHealthCheckTest {
+
+    @Test
+    public void testLivenessIgnoresUpstreams() {
+        given()
+          .when().get("/q/health/live")
+          .then()
+             .statusCode(200)
+             .body("checks.name", hasItem("Upstreams"));
+    }
+}
@@ -0,0 +1,194 @@
+package io.jeannyil;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the claims the backend authorizes on (roles, audience, tenant) straight from a JWT payload.
+ * <p>
+ * The claim paths ({@code authorization.claims.*}, {@code /}-separated, segments containing {@code /}
+ * in double quotes) are compiled once at startup into a tree of claim names. Evaluating a token streams
+ * its payload with Jackson: only objects on a configured path are entered, every other claim is skipped
+ * without being decoded, and parsing stops as soon as all configured claims have been read.
+ * <p>
+ * The token must already have been verified; this class only reads it.
+ */
+@ApplicationScoped
+public class ClaimPathEvaluator {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final int ROLES = 0;
+    private static final int AUDIENCE = 1;
+    private static final int TENANT = 2;
+
+    /**
+     * Claims read from a token; a claim that is absent is an empty list (or a {@code null} tenant).
+     * @param roles values of the roles claim
+     * @param audience values of the audience claim, whether it was a string or an array
+     * @param tenant first value of the tenant claim
+     */
+    public record AuthorizationClaims(List<String> roles, List<String> audience, String tenant) {
+
+        public boolean hasRole(String role) {
+            return roles.contains(role);
+        }
+
+        public boolean hasAudience(String expected) {
+            return audience.contains(expected);
+        }
+    }
+
+    // One level of the compiled paths: the claims to enter at this level, and the slots captured here
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        final List<Integer> slots = new ArrayList<>();
+    }
+
+    @ConfigProperty(name = "authorization.claims.roles", defaultValue = "realm_access/roles")
+    String rolesPath;
+
+    @ConfigProperty(name = "authorization.claims.audience", defaultValue = "aud")
+    String audiencePath;
+
+    @ConfigProperty(name = "authorization.claims.tenant", defaultValue = "iss")
+    String tenantPath;
+
+    private Node root;
+    private int leaves;
+
+    @PostConstruct
+    void initialize() {
+        compile(rolesPath, audiencePath, tenantPath);
+    }
+
+    void compile(String... paths) {
+        Node compiled = new Node();
+        int leafCount = 0;
+        for (int slot = 0; slot < paths.length; slot++) {
+            Node node = compiled;
+            for (String segment : segments(paths[slot])) {
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            }
+            if (node.slots.isEmpty()) {
+                leafCount++;
+            }
+            node.slots.add(slot);
+        }
+        this.root = compiled;
+        this.leaves = leafCount;
+    }
+
+    /**
+     * Reads the configured claims of a compact JWT ({@code header.payload.signature}).
+     */
+    public AuthorizationClaims evaluate(String jwt) {
+        int payloadStart = jwt.indexOf('.') + 1;
+        int payloadEnd = jwt.indexOf('.', payloadStart);
+        if (payloadStart == 0 || payloadEnd < 0) {
+            throw new IllegalArgumentException("Not a compact JWT");
+        }
+        byte[] payload = Base64.getUrlDecoder().decode(jwt.substring(payloadStart, payloadEnd));
+
+        @SuppressWarnings("unchecked")
+        List<String>[] values = new List[TENANT + 1];
+        try (JsonParser parser = JSON.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("JWT payload is not a JSON object");
+            }
+            readObject(parser, root, values, new int[] {leaves});
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid JWT payload", e);
+        }
+        List<String> tenant = orEmpty(values[TENANT]);
+        return new AuthorizationClaims(orEmpty(values[ROLES]), orEmpty(values[AUDIENCE]),
+                tenant.isEmpty() ? null : tenant.get(0));
+    }
+
+    // Returns true once every configured claim has been read, so callers can stop parsing
+    private static boolean readObject(JsonParser parser, Node node, List<String>[] values, int[] remaining)
+            throws IOException {
+        String name;
+        while ((name = parser.nextFieldName()) != null) {
+            JsonToken token = parser.nextToken();
+            Node child = node.children.get(name);
+            if (child == null) {
+                parser.skipChildren();
+                continue;
+            }
+            if (!child.slots.isEmpty()) {
+                List<String> value = readValue(parser, token);
+                for (int slot : child.slots) {
+                    values[slot] = value;
+                }
+                if (--remaining[0] == 0) {
+                    return true;
+                }
+            } else if (token == JsonToken.START_OBJECT) {
+                if (readObject(parser, child, values, remaining)) {
+                    return true;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return false;
+    }
+
+    // Strings and scalars become a single value, arrays of scalars a list; objects and nulls are skipped
+    private static List<String> readValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.START_ARRAY) {
+            List<String> values = new ArrayList<>();
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+                    values.add(parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return values;
+        }
+        if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+            return List.of(parser.getText());
+        }
+        parser.skipChildren();
+        return List.of();
+    }
+
+    private static List<String> orEmpty(List<String> values) {
+        return values != null ? values : List.of();
+    }
+
+    static List<String> segments(String path) {
+        List<String> segments = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (char c : path.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '/' && !quoted) {
+                segments.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        segments.add(current.toString());
+        if (quoted || segments.stream().anyMatch(String::isEmpty)) {
+            throw new IllegalArgumentException("Invalid claim path: " + path);
+        }
+        return segments;
+    }
+}
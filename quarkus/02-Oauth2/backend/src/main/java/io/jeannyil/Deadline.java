@@ -0,0 +1,89 @@
+package io.jeannyil;
+
+import io.micrometer.core.instrument.Counter;
+import io.smallrye.common.vertx.ContextLocals;
+import io.smallrye.common.vertx.VertxContext;
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Time budget of the request being processed, set up by {@link RequestDeadlines} and kept in the
+ * request's Vert.x duplicated context so that every upstream call made on its behalf can enforce
+ * what is left of it and forward it to the next hop in the {@value #HEADER} header.
+ */
+public final class Deadline {
+
+    /** Remaining budget in milliseconds, accepted from clients and sent to upstreams. */
+    public static final String HEADER = "X-Request-Timeout";
+
+    private static final String KEY = Deadline.class.getName();
+
+    private final String route;
+    // System.nanoTime() at which the budget runs out
+    private final long expiresAt;
+    private final Counter expired;
+
+    Deadline(String route, long expiresAt, Counter expired) {
+        this.route = route;
+        this.expiresAt = expiresAt;
+        this.expired = expired;
+    }
+
+    /**
+     * Deadline of the request being processed, empty outside request processing (startup, background refreshes).
+     */
+    public static Optional<Deadline> current() {
+        return VertxContext.isOnDuplicatedContext() ? ContextLocals.get(KEY) : Optional.empty();
+    }
+
+    /**
+     * Bounds {@code work} by the current request's deadline, if there is one.
+     */
+    public static <T> Uni<T> enforce(Uni<T> work) {
+        return current().map(deadline -> deadline.bound(work)).orElse(work);
+    }
+
+    void bind() {
+        ContextLocals.put(KEY, this);
+    }
+
+    public String route() {
+        return route;
+    }
+
+    public long remainingMillis() {
+        return Math.max(0, Duration.ofNanos(expiresAt - System.nanoTime()).toMillis());
+    }
+
+    public boolean isExpired() {
+        return expiresAt - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Throws {@link DeadlineExceededException} if the budget has run out, e.g. while the request was
+     * waiting for a worker thread.
+     */
+    public void checkNotExpired() {
+        if (isExpired()) {
+            throw exceeded();
+        }
+    }
+
+    /**
+     * Fails {@code work} with {@link DeadlineExceededException} once the budget runs out. The subscription
+     * to {@code work} is cancelled at that point, which aborts an upstream request still in progress.
+     */
+    public <T> Uni<T> bound(Uni<T> work) {
+        if (isExpired()) {
+            return Uni.createFrom().failure(this::exceeded);
+        }
+        return work.ifNoItem().after(Duration.ofNanos(expiresAt - System.nanoTime())).failWith(this::exceeded);
+    }
+
+    private DeadlineExceededException exceeded() {
+        expired.increment();
+        return new DeadlineExceededException(route);
+    }
+}
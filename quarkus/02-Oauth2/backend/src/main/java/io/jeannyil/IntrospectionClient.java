@@ -0,0 +1,115 @@
+package io.jeannyil;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.mutiny.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP client for the RFC 7662 introspection endpoint.
+ * <p>
+ * Calls go over a keep-alive pool of {@code introspection.max-concurrency} connections; at most
+ * {@code introspection.max-wait-queue-size} calls wait for a free connection, further ones fail right away.
+ * Each call is bounded by {@code introspection.timeout}, and cancelling it resets the request, also when
+ * it is still waiting for a connection.
+ */
+@ApplicationScoped
+public class IntrospectionClient {
+
+    @ConfigProperty(name = "introspection.endpoint", defaultValue = "http://localhost:8080/realms/demo/protocol/openid-connect/token/introspect")
+    String endpoint;
+
+    @ConfigProperty(name = "introspection.client-id", defaultValue = "quarkus-oauth-backend")
+    String clientId;
+
+    @ConfigProperty(name = "introspection.client-secret", defaultValue = "")
+    String clientSecret;
+
+    @ConfigProperty(name = "introspection.max-concurrency", defaultValue = "8")
+    int maxConcurrency;
+
+    @ConfigProperty(name = "introspection.max-wait-queue-size", defaultValue = "64")
+    int maxWaitQueueSize;
+
+    @ConfigProperty(name = "introspection.timeout", defaultValue = "3s")
+    Duration timeout;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    SaturationMetrics saturationMetrics;
+
+    private HttpClient httpClient;
+    private String authorization;
+    private LongAdder inFlight;
+
+    @PostConstruct
+    void initialize() {
+        this.httpClient = vertx.getDelegate().createHttpClient(new HttpClientOptions().setKeepAlive(true),
+                new PoolOptions()
+                        .setHttp1MaxSize(maxConcurrency)
+                        .setMaxWaitQueueSize(maxWaitQueueSize));
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+        URI uri = URI.create(endpoint);
+        this.inFlight = saturationMetrics.upstream(uri.getScheme() + "://" + uri.getRawAuthority());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        httpClient.close();
+    }
+
+    /**
+     * Introspects a token.
+     * @return Uni with the raw introspection response
+     */
+    public Uni<JsonObject> introspect(String token) {
+        return Uni.createFrom().deferred(() -> {
+            RequestOptions options = new RequestOptions()
+                    .setMethod(HttpMethod.POST)
+                    .setAbsoluteURI(endpoint)
+                    .setTimeout(timeout.toMillis())
+                    .putHeader(HttpHeaders.AUTHORIZATION.toString(), authorization)
+                    .putHeader(HttpHeaders.CONTENT_TYPE.toString(), "application/x-www-form-urlencoded")
+                    .putHeader(HttpHeaders.ACCEPT.toString(), "application/json");
+            Buffer form = Buffer.buffer("token=" + URLEncoder.encode(token, StandardCharsets.UTF_8)
+                    + "&token_type_hint=access_token");
+            inFlight.increment();
+            Future<HttpClientRequest> request = httpClient.request(options);
+            Future<JsonObject> introspection = request
+                    .compose(sent -> sent.send(form))
+                    .compose(response -> response.body().map(body -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Introspection failed: HTTP " + response.statusCode());
+                        }
+                        return new JsonObject(body);
+                    }));
+            return Uni.createFrom().completionStage(introspection.toCompletionStage())
+                    // The request may only be handed out by the pool after the caller gave up
+                    .onCancellation().invoke(() -> request.onSuccess(HttpClientRequest::reset))
+                    .onTermination().invoke(inFlight::decrement);
+        });
+    }
+}
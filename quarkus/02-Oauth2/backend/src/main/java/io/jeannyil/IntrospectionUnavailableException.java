@@ -0,0 +1,13 @@
+package io.jeannyil;
+
+/**
+ * Raised when a token could not be introspected because the introspection endpoint failed
+ * (timeout, I/O error, unexpected status), as opposed to the token being rejected.
+ * Answered with a 503 by {@link OpaqueTokenIdentityProvider}.
+ */
+public class IntrospectionUnavailableException extends RuntimeException {
+
+    public IntrospectionUnavailableException(Throwable cause) {
+        super("Token introspection unavailable: " + cause.getMessage(), cause);
+    }
+}
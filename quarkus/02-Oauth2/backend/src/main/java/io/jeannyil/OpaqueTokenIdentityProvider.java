@@ -0,0 +1,143 @@
+package io.jeannyil;
+
+import io.quarkus.security.AuthenticationFailedException;
+import io.quarkus.security.identity.AuthenticationRequestContext;
+import io.quarkus.security.identity.IdentityProvider;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.request.TokenAuthenticationRequest;
+import io.quarkus.security.runtime.QuarkusPrincipal;
+import io.quarkus.security.runtime.QuarkusSecurityIdentity;
+import io.quarkus.vertx.http.runtime.security.HttpSecurityUtils;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Authenticates opaque (reference) bearer tokens through {@link OpaqueTokenIntrospector}
+ * when {@code introspection.enabled=true}.
+ * <p>
+ * Runs ahead of the quarkus-oidc identity provider and steps aside (null identity) for JWTs,
+ * which keep being validated locally. Roles are read from {@code quarkus.oidc.roles.role-claim-path}
+ * and the audience is checked against {@code quarkus.oidc.token.audience}, as for JWTs.
+ * <p>
+ * Tokens that cannot be introspected because the introspection endpoint failed are answered 503
+ * rather than 401, so clients do not discard a token that may well be valid.
+ */
+@ApplicationScoped
+public class OpaqueTokenIdentityProvider implements IdentityProvider<TokenAuthenticationRequest> {
+
+    private static final Logger LOG = Logger.getLogger(OpaqueTokenIdentityProvider.class);
+
+    public static final String INTROSPECTION_ATTRIBUTE = "introspection";
+
+    static final String UNAVAILABLE_BODY = "{\"error\": \"Token introspection unavailable\"}";
+
+    @ConfigProperty(name = "introspection.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "quarkus.oidc.roles.role-claim-path", defaultValue = "realm_access/roles")
+    String roleClaimPath;
+
+    @ConfigProperty(name = "quarkus.oidc.token.audience")
+    Optional<List<String>> audience;
+
+    @Inject
+    OpaqueTokenIntrospector introspector;
+
+    void registerFailureHandler(@Observes Router router) {
+        router.route().order(Integer.MIN_VALUE + 1).failureHandler(ctx -> {
+            if (ctx.failure() instanceof IntrospectionUnavailableException && !ctx.response().headWritten()) {
+                LOG.warnf("  └─ ✗ %s", ctx.failure().getMessage());
+                ctx.response()
+                        .setStatusCode(503)
+                        .putHeader("Content-Type", "application/json")
+                        .end(UNAVAILABLE_BODY);
+            } else {
+                ctx.next();
+            }
+        });
+    }
+
+    @Override
+    public Class<TokenAuthenticationRequest> getRequestType() {
+        return TokenAuthenticationRequest.class;
+    }
+
+    @Override
+    public int priority() {
+        // Higher than the OIDC provider, which keeps the default priority, so opaque tokens are seen first
+        return IdentityProvider.super.priority() + 1;
+    }
+
+    @Override
+    public Uni<SecurityIdentity> authenticate(TokenAuthenticationRequest request, AuthenticationRequestContext context) {
+        String token = request.getToken().getToken();
+        if (!enabled || isJwt(token)) {
+            return Uni.createFrom().nullItem();
+        }
+        RoutingContext routingContext = HttpSecurityUtils.getRoutingContextAttribute(request);
+        // The introspection itself may be shared with other requests; only this request's wait is bounded
+        Uni<OpaqueTokenIntrospector.Introspection> introspection = introspector.introspect(token)
+                .onFailure().transform(IntrospectionUnavailableException::new);
+        return Deadline.enforce(introspection).map(result -> {
+            if (!result.active()) {
+                throw new AuthenticationFailedException("Token is not active");
+            }
+            JsonObject claims = result.claims();
+            if (audience.isPresent() && !hasAudience(claims, audience.get())) {
+                throw new AuthenticationFailedException("Token audience does not match");
+            }
+            QuarkusSecurityIdentity.Builder builder = QuarkusSecurityIdentity.builder()
+                    .setPrincipal(new QuarkusPrincipal(principalName(claims)))
+                    .addCredential(request.getToken())
+                    .addRoles(roles(claims))
+                    .addAttribute(INTROSPECTION_ATTRIBUTE, claims);
+            if (routingContext != null) {
+                builder.addAttribute(RoutingContext.class.getName(), routingContext);
+            }
+            return builder.build();
+        });
+    }
+
+    static boolean isJwt(String token) {
+        // Compact JWS serialization: header.payload.signature
+        return token.chars().filter(c -> c == '.').count() == 2;
+    }
+
+    private static String principalName(JsonObject claims) {
+        String name = claims.getString("preferred_username", claims.getString("username"));
+        return name != null ? name : claims.getString("sub");
+    }
+
+    private static boolean hasAudience(JsonObject claims, List<String> expected) {
+        Object aud = claims.getValue("aud");
+        if (aud instanceof JsonArray audiences) {
+            return expected.stream().anyMatch(audiences::contains);
+        }
+        return aud != null && expected.contains(aud.toString());
+    }
+
+    private Set<String> roles(JsonObject claims) {
+        Object value = claims;
+        for (String segment : roleClaimPath.split("/")) {
+            value = value instanceof JsonObject object ? object.getValue(segment) : null;
+        }
+        Set<String> roles = new HashSet<>();
+        if (value instanceof JsonArray array) {
+            array.forEach(role -> roles.add(role.toString()));
+        }
+        return roles;
+    }
+}
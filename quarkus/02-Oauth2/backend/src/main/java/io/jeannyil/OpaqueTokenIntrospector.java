@@ -0,0 +1,154 @@
+package io.jeannyil;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.json.JsonObject;
+import io.vertx.mutiny.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cached, single-flight RFC 7662 introspection of opaque access tokens.
+ * <p>
+ * Results are keyed by the SHA-256 digest of the token (tokens are never kept in memory as keys).
+ * Active tokens are cached until their {@code exp} (capped by {@code introspection.cache.max-ttl}),
+ * inactive ones for {@code introspection.negative-cache-ttl}. Concurrent introspections of the same
+ * token share a single call made through the {@link IntrospectionClient}. When the cache holds
+ * {@code introspection.cache.max-size} entries, expired entries are dropped first, then the oldest ones.
+ */
+@ApplicationScoped
+public class OpaqueTokenIntrospector {
+
+    /**
+     * Outcome of an introspection.
+     * @param active whether the authorization server considers the token active
+     * @param claims the introspection response
+     */
+    public record Introspection(boolean active, JsonObject claims) {
+    }
+
+    private record CachedIntrospection(Introspection introspection, long storedAt, long expiresAt) {
+    }
+
+    @ConfigProperty(name = "introspection.cache.max-size", defaultValue = "10000")
+    int cacheMaxSize;
+
+    @ConfigProperty(name = "introspection.cache.max-ttl", defaultValue = "5m")
+    Duration cacheMaxTtl;
+
+    @ConfigProperty(name = "introspection.negative-cache-ttl", defaultValue = "30s")
+    Duration negativeCacheTtl;
+
+    @ConfigProperty(name = "introspection.timeout", defaultValue = "3s")
+    Duration timeout;
+
+    @Inject
+    IntrospectionClient client;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<String, CachedIntrospection> cache = new ConcurrentHashMap<>();
+    private final Map<String, Uni<Introspection>> inFlight = new ConcurrentHashMap<>();
+
+    private Counter cacheHits;
+    private Counter cacheMisses;
+    private long sweepTimerId;
+
+    @PostConstruct
+    void initialize() {
+        this.cacheHits = registry.counter("introspection.cache", "result", "hit");
+        this.cacheMisses = registry.counter("introspection.cache", "result", "miss");
+        registry.gaugeMapSize("introspection.cache.size", Tags.empty(), cache);
+        this.sweepTimerId = vertx.setPeriodic(Math.max(1000, negativeCacheTtl.toMillis()), id -> evictExpired());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        vertx.cancelTimer(sweepTimerId);
+    }
+
+    public Uni<Introspection> introspect(String token) {
+        String key = digest(token);
+        CachedIntrospection cached = cache.get(key);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            cacheHits.increment();
+            return Uni.createFrom().item(cached.introspection());
+        }
+        cacheMisses.increment();
+        return inFlight.computeIfAbsent(key, k -> client.introspect(token)
+                .ifNoItem().after(timeout).fail()
+                .map(claims -> new Introspection(claims.getBoolean("active", false), claims))
+                .invoke(introspection -> store(k, introspection))
+                .onTermination().invoke(() -> inFlight.remove(k))
+                .memoize().indefinitely());
+    }
+
+    private void store(String key, Introspection introspection) {
+        if (cache.size() >= cacheMaxSize) {
+            makeRoom();
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt;
+        if (introspection.active()) {
+            expiresAt = now + cacheMaxTtl.toMillis();
+            Long exp = introspection.claims().getLong("exp");
+            if (exp != null) {
+                expiresAt = Math.min(expiresAt, exp * 1000);
+            }
+        } else {
+            expiresAt = now + negativeCacheTtl.toMillis();
+        }
+        cache.put(key, new CachedIntrospection(introspection, now, expiresAt));
+    }
+
+    private synchronized void makeRoom() {
+        if (cache.size() < cacheMaxSize) {
+            return;
+        }
+        evictExpired();
+        if (cache.size() < cacheMaxSize) {
+            return;
+        }
+        // Evict a tenth of the cache at once so that a full cache is not sorted on every store
+        int excess = cache.size() - cacheMaxSize + Math.max(1, cacheMaxSize / 10);
+        cache.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().storedAt()))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(cache::remove);
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(cached -> cached.expiresAt() <= now);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
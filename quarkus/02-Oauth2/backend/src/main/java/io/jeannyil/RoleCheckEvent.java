@@ -0,0 +1,31 @@
+package io.jeannyil;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.jeannyil.RoleCheck")
+@Label("Role Check")
+@Description("Time to evaluate the roles of the caller against the role required by an endpoint")
+@Category({"Keycloak Playground", "Security"})
+@StackTrace(false)
+public class RoleCheckEvent extends Event {
+
+    @Label("Required Role")
+    public String role;
+
+    @Label("Granted")
+    public boolean granted;
+
+    void complete(String role, boolean granted) {
+        end();
+        if (shouldCommit()) {
+            this.role = role;
+            this.granted = granted;
+            commit();
+        }
+    }
+}
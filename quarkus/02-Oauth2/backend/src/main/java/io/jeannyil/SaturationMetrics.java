@@ -0,0 +1,181 @@
+package io.jeannyil;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.concurrent.EventExecutor;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.vertx.ext.web.Router;
+import io.vertx.mutiny.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Saturation gauges meant as autoscaling signals (HPA custom metrics) for this I/O-bound service,
+ * where CPU usage says little about how close a pod is to its limit:
+ * <ul>
+ *   <li>{@code saturation.eventloop.lag}: how late a task submitted to each event loop runs, probed
+ *       every {@code saturation.event-loop.probe-interval}. A loop that never picks up its probe
+ *       reports the time the probe has been waiting, so a blocked loop shows a growing lag</li>
+ *   <li>{@code saturation.http.inflight}: requests being processed, per endpoint listed in
+ *       {@code saturation.endpoints} (everything else is {@code other})</li>
+ *   <li>{@code saturation.upstream.inflight}: calls waiting on an upstream, per target</li>
+ * </ul>
+ * Worker pool queue depth is not duplicated here: Quarkus Micrometer already exports it as
+ * {@code worker_pool_queue_size{pool_name="vert.x-worker-thread"}}.
+ * <p>
+ * Counters are {@link LongAdder}s and atomic arrays updated without locks; values are only
+ * aggregated when the gauges are scraped.
+ */
+@ApplicationScoped
+public class SaturationMetrics {
+
+    static final String OTHER = "other";
+
+    @ConfigProperty(name = "saturation.event-loop.probe-interval", defaultValue = "500ms")
+    Duration probeInterval;
+
+    @ConfigProperty(name = "saturation.endpoints", defaultValue = "/public,/secured")
+    List<String> endpoints;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<String, LongAdder> inFlightByEndpoint = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> inFlightByUpstream = new ConcurrentHashMap<>();
+    private final LongAdder inFlightOther = new LongAdder();
+
+    private EventExecutor[] eventLoops;
+    // Per event loop: when the pending probe was submitted (0 = none pending) and the last measured lag
+    private AtomicLongArray probeSubmittedAt;
+    private AtomicLongArray lastLagNanos;
+    private ScheduledExecutorService prober;
+
+    @PostConstruct
+    void initialize() {
+        for (String endpoint : endpoints) {
+            LongAdder counter = new LongAdder();
+            inFlightByEndpoint.put(endpoint, counter);
+            registerInFlight(endpoint, counter);
+        }
+        registerInFlight(OTHER, inFlightOther);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        List<EventExecutor> loops = new ArrayList<>();
+        vertx.getDelegate().nettyEventLoopGroup().forEach(loops::add);
+        this.eventLoops = loops.toArray(new EventExecutor[0]);
+        this.probeSubmittedAt = new AtomicLongArray(eventLoops.length);
+        this.lastLagNanos = new AtomicLongArray(eventLoops.length);
+        for (int i = 0; i < eventLoops.length; i++) {
+            int loop = i;
+            Gauge.builder("saturation.eventloop.lag", this, metrics -> metrics.lagSeconds(loop))
+                    .description("Delay before a task submitted to the event loop starts running")
+                    .baseUnit("seconds")
+                    .tag("loop", String.valueOf(loop))
+                    .register(registry);
+        }
+        Gauge.builder("saturation.eventloop.lag.max", this, metrics ->
+                        IntStream.range(0, metrics.eventLoops.length).mapToDouble(metrics::lagSeconds).max().orElse(0))
+                .description("Highest event loop lag across all event loops")
+                .baseUnit("seconds")
+                .register(registry);
+
+        this.prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "saturation-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = probeInterval.toMillis();
+        prober.scheduleAtFixedRate(this::probeEventLoops, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (prober != null) {
+            prober.shutdownNow();
+        }
+    }
+
+    // Counts every HTTP request from the moment it reaches the router until its response ends
+    // (or the connection closes)
+    void registerInFlightHandler(@Observes Router router) {
+        router.route().order(Integer.MIN_VALUE).handler(ctx -> {
+            LongAdder counter = inFlightByEndpoint.getOrDefault(ctx.normalizedPath(), inFlightOther);
+            counter.increment();
+            ctx.addEndHandler(result -> counter.decrement());
+            ctx.next();
+        });
+    }
+
+    /**
+     * Counts a call as in flight to {@code target} from subscription until it completes, fails or is cancelled.
+     */
+    public <T> Uni<T> trackUpstream(String target, Uni<T> call) {
+        LongAdder counter = upstream(target);
+        return Uni.createFrom().deferred(() -> {
+            counter.increment();
+            return call;
+        }).onTermination().invoke(counter::decrement);
+    }
+
+    /**
+     * In-flight counter of an upstream target, for callers that track calls themselves.
+     */
+    public LongAdder upstream(String target) {
+        return inFlightByUpstream.computeIfAbsent(target, t -> {
+            LongAdder counter = new LongAdder();
+            Gauge.builder("saturation.upstream.inflight", counter, LongAdder::sum)
+                    .description("Upstream calls in flight")
+                    .tag("target", t)
+                    .register(registry);
+            return counter;
+        });
+    }
+
+    private void registerInFlight(String endpoint, LongAdder counter) {
+        Gauge.builder("saturation.http.inflight", counter, LongAdder::sum)
+                .description("HTTP requests in flight")
+                .tag("endpoint", endpoint)
+                .register(registry);
+    }
+
+    private void probeEventLoops() {
+        for (int i = 0; i < eventLoops.length; i++) {
+            if (probeSubmittedAt.get(i) != 0) {
+                // The previous probe has not run yet: the loop is stalled, its gauge already reports the wait
+                continue;
+            }
+            int loop = i;
+            probeSubmittedAt.set(loop, System.nanoTime());
+            eventLoops[loop].execute(() -> {
+                lastLagNanos.set(loop, System.nanoTime() - probeSubmittedAt.get(loop));
+                probeSubmittedAt.set(loop, 0);
+            });
+        }
+    }
+
+    private double lagSeconds(int loop) {
+        long submittedAt = probeSubmittedAt.get(loop);
+        long waiting = submittedAt == 0 ? 0 : System.nanoTime() - submittedAt;
+        return Math.max(lastLagNanos.get(loop), waiting) / 1e9;
+    }
+}
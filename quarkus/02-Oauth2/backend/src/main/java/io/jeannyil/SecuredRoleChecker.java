@@ -0,0 +1,76 @@
+package io.jeannyil;
+
+import io.quarkus.oidc.runtime.OidcJwtCallerPrincipal;
+import io.quarkus.security.PermissionChecker;
+import io.quarkus.security.identity.SecurityIdentity;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Authorization decision of {@code /secured}: the caller needs the {@value #REQUIRED_ROLE} role and,
+ * when {@code quarkus.oidc.token.audience} is set, one of those audiences.
+ * <p>
+ * For JWTs both are read from the token with the compiled {@link ClaimPathEvaluator}; opaque tokens carry
+ * the roles mapped from their introspection response (the audience was checked when it was introspected).
+ * Backing {@code @PermissionsAllowed} with this checker makes the JFR {@link RoleCheckEvent} time the
+ * actual check, denials included, instead of a second lookup after access was already granted.
+ */
+@ApplicationScoped
+public class SecuredRoleChecker {
+
+    private static final Logger LOG = Logger.getLogger(SecuredRoleChecker.class);
+
+    static final String PERMISSION = "secured:read";
+    static final String REQUIRED_ROLE = "user";
+
+    @ConfigProperty(name = "quarkus.oidc.token.audience")
+    Optional<List<String>> audience;
+
+    @Inject
+    ClaimPathEvaluator claimPathEvaluator;
+
+    @PermissionChecker(PERMISSION)
+    boolean hasRequiredRole(SecurityIdentity identity) {
+        String username = identity.getPrincipal().getName();
+        RoleCheckEvent roleCheck = new RoleCheckEvent();
+        roleCheck.begin();
+        if (!(identity.getPrincipal() instanceof OidcJwtCallerPrincipal jwtPrincipal)) {
+            boolean granted = identity.hasRole(REQUIRED_ROLE);
+            roleCheck.complete(REQUIRED_ROLE, granted);
+            if (granted) {
+                LOG.infof("GET /secured - Secured endpoint accessed by user: %s", username);
+                LOG.infof("  └─ ✓ Access GRANTED - User '%s' has required '%s' role", username, REQUIRED_ROLE);
+                LOG.infof("  └─ User roles: %s", identity.getRoles());
+            } else {
+                LOG.infof("GET /secured - ✗ Access DENIED - User '%s' lacks required '%s' role", username, REQUIRED_ROLE);
+            }
+            return granted;
+        }
+
+        ClaimPathEvaluator.AuthorizationClaims claims = claimPathEvaluator.evaluate(jwtPrincipal.getRawToken());
+        boolean hasRole = claims.hasRole(REQUIRED_ROLE);
+        boolean hasAudience = audience.isEmpty() || audience.get().stream().anyMatch(claims::hasAudience);
+        roleCheck.complete(REQUIRED_ROLE, hasRole && hasAudience);
+
+        if (!hasAudience) {
+            LOG.infof("GET /secured - ✗ Access DENIED - Token audience %s does not include %s",
+                    claims.audience(), audience.get());
+        } else if (!hasRole) {
+            LOG.infof("GET /secured - ✗ Access DENIED - User '%s' lacks required '%s' role", username, REQUIRED_ROLE);
+        } else {
+            LOG.infof("GET /secured - Token validation successful");
+            LOG.infof("  └─ User: %s", username);
+            LOG.infof("  └─ Tenant: %s", claims.tenant());
+            LOG.infof("  └─ Audience: %s (verified against %s)", String.join(", ", claims.audience()),
+                    audience.map(String::valueOf).orElse("no configured audience"));
+            LOG.infof("  └─ Roles: %s", claims.roles());
+            LOG.infof("  └─ ✓ Access GRANTED - User '%s' has required '%s' role", username, REQUIRED_ROLE);
+        }
+        return hasRole && hasAudience;
+    }
+}
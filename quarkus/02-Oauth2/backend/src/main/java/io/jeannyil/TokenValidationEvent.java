@@ -0,0 +1,35 @@
+package io.jeannyil;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.jeannyil.TokenValidation")
+@Label("Token Validation")
+@Description("Time from the arrival of a request carrying a bearer token until its identity is validated or rejected")
+@Category({"Keycloak Playground", "Security"})
+@StackTrace(false)
+public class TokenValidationEvent extends Event {
+
+    @Label("Token Type")
+    public String tokenType;
+
+    @Label("Principal")
+    public String principal;
+
+    @Label("Valid")
+    public boolean valid;
+
+    void complete(String tokenType, String principal, boolean valid) {
+        end();
+        if (shouldCommit()) {
+            this.tokenType = tokenType;
+            this.principal = principal;
+            this.valid = valid;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.jeannyil;
+
+import io.quarkus.security.identity.AuthenticationRequestContext;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.SecurityIdentityAugmentor;
+import io.quarkus.security.spi.runtime.AuthenticationFailureEvent;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+
+/**
+ * Times bearer token validation as a JFR {@link TokenValidationEvent}.
+ * The event begins when a request carrying an {@code Authorization} header enters the router
+ * and ends when the validated identity is handed to the security identity augmentors, or when
+ * authentication fails (invalid, expired or inactive token).
+ */
+@ApplicationScoped
+public class TokenValidationRecorder implements SecurityIdentityAugmentor {
+
+    private static final String EVENT_KEY = TokenValidationEvent.class.getName();
+
+    void registerTimingHandler(@Observes Router router) {
+        // Runs before the HTTP authentication handler
+        router.route().order(Integer.MIN_VALUE).handler(routingContext -> {
+            if (routingContext.request().getHeader(HttpHeaders.AUTHORIZATION) != null) {
+                TokenValidationEvent event = new TokenValidationEvent();
+                event.begin();
+                routingContext.put(EVENT_KEY, event);
+            }
+            routingContext.next();
+        });
+    }
+
+    @Override
+    public Uni<SecurityIdentity> augment(SecurityIdentity identity, AuthenticationRequestContext context) {
+        RoutingContext routingContext = identity.getAttribute(RoutingContext.class.getName());
+        if (routingContext != null && routingContext.remove(EVENT_KEY) instanceof TokenValidationEvent event) {
+            String tokenType = identity.getPrincipal() instanceof JsonWebToken ? "jwt" : "opaque";
+            event.complete(tokenType, identity.getPrincipal().getName(), true);
+        }
+        return Uni.createFrom().item(identity);
+    }
+
+    void authenticationFailed(@Observes AuthenticationFailureEvent failure) {
+        if (failure.getEventProperties().get(RoutingContext.class.getName()) instanceof RoutingContext routingContext
+                && routingContext.remove(EVENT_KEY) instanceof TokenValidationEvent event) {
+            String authorization = routingContext.request().getHeader(HttpHeaders.AUTHORIZATION);
+            event.complete(authorization != null && OpaqueTokenIdentityProvider.isJwt(authorization) ? "jwt" : "opaque", null, false);
+        }
+    }
+}
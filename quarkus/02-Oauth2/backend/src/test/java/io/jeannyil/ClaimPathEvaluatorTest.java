@@ -0,0 +1,111 @@
+package io.jeannyil;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClaimPathEvaluatorTest {
+
+    static final String ROLES_PATH = "resource_access/quarkus-oauth-backend/roles";
+
+    // Access token shaped like the ones Keycloak issues for the playground realm
+    static JsonObject keycloakClaims() {
+        return new JsonObject()
+                .put("exp", 1_900_000_000L)
+                .put("iat", 1_899_999_700L)
+                .put("jti", "onrtac:5f0d0c6e-4c1c-4d8e-9a33-0c8c0f6f3c42")
+                .put("iss", "https://sso.apps.example.com/realms/demo")
+                .put("aud", new JsonArray().add("quarkus-oauth-backend").add("account"))
+                .put("sub", "0f5b6c1e-7d0a-4a8e-b7b4-6b1b9d3c2a11")
+                .put("typ", "Bearer")
+                .put("azp", "quarkus-oauth-frontend")
+                .put("sid", "8d3e1f6a-2b4c-4d5e-9f70-1a2b3c4d5e6f")
+                .put("acr", "1")
+                .put("allowed-origins", new JsonArray().add("http://localhost:8080"))
+                .put("realm_access", new JsonObject().put("roles", new JsonArray()
+                        .add("offline_access").add("uma_authorization").add("default-roles-demo")))
+                .put("resource_access", new JsonObject()
+                        .put("quarkus-oauth-backend", new JsonObject().put("roles", new JsonArray().add("user")))
+                        .put("account", new JsonObject().put("roles", new JsonArray()
+                                .add("manage-account").add("manage-account-links").add("view-profile"))))
+                .put("scope", "openid profile email")
+                .put("email_verified", true)
+                .put("name", "Demo User")
+                .put("preferred_username", "demo")
+                .put("given_name", "Demo")
+                .put("family_name", "User")
+                .put("email", "demo@example.com");
+    }
+
+    static String token(JsonObject claims) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"RS256\",\"typ\":\"JWT\",\"kid\":\"test\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(claims.encode().getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(new byte[256]);
+    }
+
+    static ClaimPathEvaluator evaluator(String rolesPath, String audiencePath, String tenantPath) {
+        ClaimPathEvaluator evaluator = new ClaimPathEvaluator();
+        evaluator.compile(rolesPath, audiencePath, tenantPath);
+        return evaluator;
+    }
+
+    @Test
+    void readsNestedRolesAudienceArrayAndTenant() {
+        ClaimPathEvaluator.AuthorizationClaims claims = evaluator(ROLES_PATH, "aud", "iss")
+                .evaluate(token(keycloakClaims()));
+
+        assertEquals(List.of("user"), claims.roles());
+        assertEquals(List.of("quarkus-oauth-backend", "account"), claims.audience());
+        assertEquals("https://sso.apps.example.com/realms/demo", claims.tenant());
+        assertTrue(claims.hasRole("user"));
+        assertTrue(claims.hasAudience("quarkus-oauth-backend"));
+    }
+
+    @Test
+    void handlesSingleAudienceQuotedSegmentsAndMissingClaims() {
+        JsonObject payload = keycloakClaims()
+                .put("aud", "quarkus-oauth-backend")
+                .put("https://example.com/claims", new JsonObject().put("tenant", "acme"));
+        payload.remove("resource_access");
+
+        ClaimPathEvaluator.AuthorizationClaims claims = evaluator(ROLES_PATH, "aud", "\"https://example.com/claims\"/tenant")
+                .evaluate(token(payload));
+
+        assertEquals(List.of(), claims.roles());
+        assertEquals(List.of("quarkus-oauth-backend"), claims.audience());
+        assertEquals("acme", claims.tenant());
+        assertNull(evaluator(ROLES_PATH, "aud", "tenant").evaluate(token(payload)).tenant());
+    }
+
+    @Test
+    void skipsNullsAndObjectsInsideArrays() {
+        JsonObject payload = keycloakClaims()
+                .put("aud", new JsonArray().addNull().add("quarkus-oauth-backend").add(new JsonObject().put("x", 1)))
+                .put("resource_access", new JsonObject().put("quarkus-oauth-backend",
+                        new JsonObject().put("roles", new JsonArray().add("user").addNull())))
+                .putNull("iss");
+
+        ClaimPathEvaluator.AuthorizationClaims claims = evaluator(ROLES_PATH, "aud", "iss").evaluate(token(payload));
+
+        assertEquals(List.of("user"), claims.roles());
+        assertEquals(List.of("quarkus-oauth-backend"), claims.audience());
+        assertNull(claims.tenant());
+    }
+
+    @Test
+    void rejectsInvalidPathsAndTokens() {
+        assertThrows(IllegalArgumentException.class, () -> ClaimPathEvaluator.segments("realm_access//roles"));
+        assertThrows(IllegalArgumentException.class, () -> ClaimPathEvaluator.segments("\"unterminated/roles"));
+        assertThrows(IllegalArgumentException.class, () -> evaluator(ROLES_PATH, "aud", "iss").evaluate("opaque-token"));
+    }
+}
@@ -0,0 +1,109 @@
+package io.jeannyil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.json.JsonObject;
+import io.vertx.mutiny.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpaqueTokenIntrospectorTest {
+
+    private final AtomicInteger introspectionCalls = new AtomicInteger();
+
+    private Vertx vertx;
+    private OpaqueTokenIntrospector introspector;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+        introspector = new OpaqueTokenIntrospector();
+        introspector.cacheMaxSize = 100;
+        introspector.cacheMaxTtl = Duration.ofMinutes(5);
+        introspector.negativeCacheTtl = Duration.ofSeconds(30);
+        introspector.timeout = Duration.ofSeconds(3);
+        introspector.vertx = vertx;
+        introspector.registry = new SimpleMeterRegistry();
+        introspector.client = new IntrospectionClient() {
+            @Override
+            public Uni<JsonObject> introspect(String token) {
+                introspectionCalls.incrementAndGet();
+                long exp = token.startsWith("expired") ? 1 : System.currentTimeMillis() / 1000 + 300;
+                JsonObject response = new JsonObject()
+                        .put("active", !token.startsWith("revoked"))
+                        .put("exp", exp);
+                return Uni.createFrom().item(response).onItem().delayIt().by(Duration.ofMillis(50));
+            }
+        };
+        introspector.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        introspector.shutdown();
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    void testConcurrentIntrospectionsShareOneCall() {
+        List<Uni<OpaqueTokenIntrospector.Introspection>> concurrent = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            concurrent.add(introspector.introspect("opaque-token"));
+        }
+        List<OpaqueTokenIntrospector.Introspection> results = Uni.join().all(concurrent).andFailFast().await().indefinitely();
+
+        assertEquals(20, results.size());
+        assertTrue(results.stream().allMatch(OpaqueTokenIntrospector.Introspection::active));
+        assertEquals(1, introspectionCalls.get());
+    }
+
+    @Test
+    void testActiveTokenIsCachedUntilExp() {
+        introspector.introspect("opaque-token").await().indefinitely();
+        introspector.introspect("opaque-token").await().indefinitely();
+        assertEquals(1, introspectionCalls.get());
+
+        introspector.introspect("expired-token").await().indefinitely();
+        introspector.introspect("expired-token").await().indefinitely();
+        assertEquals(3, introspectionCalls.get());
+    }
+
+    @Test
+    void testInactiveTokenIsNegativelyCached() {
+        assertFalse(introspector.introspect("revoked-token").await().indefinitely().active());
+        assertFalse(introspector.introspect("revoked-token").await().indefinitely().active());
+        assertEquals(1, introspectionCalls.get());
+    }
+
+    @Test
+    void testFullCacheEvictsExpiredThenOldestEntries() {
+        introspector.cacheMaxSize = 20;
+        introspector.introspect("expired-token").await().indefinitely();
+        for (int i = 0; i < 19; i++) {
+            introspector.introspect("opaque-token-" + i).await().indefinitely();
+        }
+        assertEquals(20, introspectionCalls.get());
+
+        // Full: the expired entry makes room
+        introspector.introspect("opaque-token-19").await().indefinitely();
+        introspector.introspect("opaque-token-0").await().indefinitely();
+        assertEquals(21, introspectionCalls.get());
+
+        // Full again, nothing expired: the oldest entries make room
+        introspector.introspect("opaque-token-20").await().indefinitely();
+        introspector.introspect("opaque-token-19").await().indefinitely();
+        assertEquals(22, introspectionCalls.get());
+        introspector.introspect("opaque-token-0").await().indefinitely();
+        assertEquals(23, introspectionCalls.get());
+    }
+}
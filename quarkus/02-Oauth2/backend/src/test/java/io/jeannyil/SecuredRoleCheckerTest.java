@@ -0,0 +1,74 @@
+package io.jeannyil;
+
+import io.quarkus.oidc.runtime.OidcJwtCallerPrincipal;
+import io.quarkus.security.credential.TokenCredential;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.runtime.QuarkusPrincipal;
+import io.quarkus.security.runtime.QuarkusSecurityIdentity;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.jose4j.jwt.JwtClaims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SecuredRoleCheckerTest {
+
+    private SecuredRoleChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        checker = new SecuredRoleChecker();
+        checker.claimPathEvaluator = ClaimPathEvaluatorTest.evaluator(ClaimPathEvaluatorTest.ROLES_PATH, "aud", "iss");
+        checker.audience = Optional.of(List.of("quarkus-oauth-backend"));
+    }
+
+    @Test
+    void testJwtIsAuthorizedFromCompiledClaims() throws Exception {
+        assertTrue(checker.hasRequiredRole(jwtIdentity(ClaimPathEvaluatorTest.keycloakClaims())));
+
+        JsonObject withoutRole = ClaimPathEvaluatorTest.keycloakClaims()
+                .put("resource_access", new JsonObject().put("quarkus-oauth-backend",
+                        new JsonObject().put("roles", new JsonArray().add("viewer"))));
+        assertFalse(checker.hasRequiredRole(jwtIdentity(withoutRole)));
+
+        JsonObject otherAudience = ClaimPathEvaluatorTest.keycloakClaims().put("aud", "account");
+        assertFalse(checker.hasRequiredRole(jwtIdentity(otherAudience)));
+
+        checker.audience = Optional.empty();
+        assertTrue(checker.hasRequiredRole(jwtIdentity(otherAudience)));
+    }
+
+    @Test
+    void testOpaqueTokenIsAuthorizedFromIdentityRoles() {
+        SecurityIdentity user = QuarkusSecurityIdentity.builder()
+                .setPrincipal(new QuarkusPrincipal("demo"))
+                .addRole(SecuredRoleChecker.REQUIRED_ROLE)
+                .build();
+        SecurityIdentity viewer = QuarkusSecurityIdentity.builder()
+                .setPrincipal(new QuarkusPrincipal("demo"))
+                .addRole("viewer")
+                .build();
+
+        assertTrue(checker.hasRequiredRole(user));
+        assertFalse(checker.hasRequiredRole(viewer));
+    }
+
+    // Roles deliberately differ from the token's, so only the compiled claims can grant access
+    private static SecurityIdentity jwtIdentity(JsonObject claims) throws Exception {
+        String token = ClaimPathEvaluatorTest.token(claims);
+        // quarkus-oidc keeps the verified token as the raw_token claim
+        JwtClaims jwtClaims = JwtClaims.parse(claims.encode());
+        jwtClaims.setClaim("raw_token", token);
+        OidcJwtCallerPrincipal principal = new OidcJwtCallerPrincipal(jwtClaims, new TokenCredential(token, "bearer"));
+        return QuarkusSecurityIdentity.builder()
+                .setPrincipal(principal)
+                .addRole("unrelated")
+                .build();
+    }
+}
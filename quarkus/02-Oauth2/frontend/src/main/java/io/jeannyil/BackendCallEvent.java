@@ -0,0 +1,20 @@
+package io.jeannyil;
+
+import io.vertx.core.http.HttpMethod;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.jeannyil.BackendCall")
+@Label("Backend Call")
+@Description("Time from sending a REST client request to the backend until its response headers (connect, write and time to first byte)")
+public class BackendCallEvent extends UpstreamPhaseEvent {
+
+    @Label("Status Code")
+    public int statusCode;
+
+    void complete(String hop, HttpMethod method, String url, int statusCode) {
+        this.statusCode = statusCode;
+        complete(hop, method, url);
+    }
+}
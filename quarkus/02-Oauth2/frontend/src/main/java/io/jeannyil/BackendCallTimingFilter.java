@@ -0,0 +1,34 @@
+package io.jeannyil;
+
+import io.vertx.core.http.HttpMethod;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+
+/**
+ * Emits a {@link BackendCallEvent} for each call made through {@link BackendServiceClient}.
+ * The REST client does not expose its connection phases, so the event covers connect, write
+ * and time to first byte as a whole; the body is read afterwards by the client.
+ */
+public class BackendCallTimingFilter implements ClientRequestFilter, ClientResponseFilter {
+
+    private static final String EVENT_PROPERTY = BackendCallEvent.class.getName();
+
+    @Override
+    public void filter(ClientRequestContext requestContext) {
+        BackendCallEvent event = new BackendCallEvent();
+        event.begin();
+        requestContext.setProperty(EVENT_PROPERTY, event);
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+        if (requestContext.getProperty(EVENT_PROPERTY) instanceof BackendCallEvent event) {
+            event.complete("backend:" + requestContext.getUri().getPath(),
+                    HttpMethod.valueOf(requestContext.getMethod()),
+                    requestContext.getUri().toString(),
+                    responseContext.getStatus());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.jeannyil;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import org.eclipse.microprofile.health.Readiness;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+/**
+ * Readiness check for the OAuth backend service.
+ * Falls back to calling the backend's public endpoint only when no recent traffic reached it.
+ */
+@Readiness
+@ApplicationScoped
+public class BackendReadinessCheck extends CachedUpstreamHealthCheck {
+
+    @Inject
+    @RestClient
+    BackendServiceClient backendClient;
+
+    @Inject
+    SaturationMetrics saturationMetrics;
+
+    @Override
+    protected String name() {
+        return "Backend service";
+    }
+
+    @Override
+    protected String upstream() {
+        return UpstreamHealthTracker.BACKEND;
+    }
+
+    @Override
+    protected Uni<Integer> probe() {
+        return saturationMetrics.trackUpstream(UpstreamHealthTracker.BACKEND, backendClient.getPublic())
+                .map(body -> 200)
+                .onFailure(WebApplicationException.class)
+                .recoverWithItem(e -> ((WebApplicationException) e).getResponse().getStatus());
+    }
+}
@@ -0,0 +1,29 @@
+package io.jeannyil;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+
+/**
+ * Reactive REST Client for service-level calls to the OAuth backend, authenticated as the
+ * frontend itself with a client-credentials token added by {@link ServiceTokenFilter}.
+ * Each call is timed as a JFR {@link BackendCallEvent} and carries the remaining request {@link Deadline}.
+ */
+@RegisterRestClient(configKey = "backend-service-account")
+@RegisterProvider(ServiceTokenFilter.class)
+@RegisterProvider(BackendCallTimingFilter.class)
+@RegisterProvider(DeadlinePropagationFilter.class)
+@Path("/")
+public interface BackendServiceAccountClient {
+
+    /**
+     * Call the secured endpoint with the frontend's service token (the service account needs the user role)
+     * @return Uni with the response message
+     */
+    @GET
+    @Path("/secured")
+    @Produces(MediaType.TEXT_PLAIN)
+    Uni<String> getSecured();
+}
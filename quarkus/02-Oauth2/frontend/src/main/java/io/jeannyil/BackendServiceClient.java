@@ -3,14 +3,18 @@ package io.jeannyil;
 import io.smallrye.mutiny.Uni;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
 /**
  * Reactive REST Client for communicating with the OAuth backend service.
  * Automatically propagates OpenTelemetry trace context.
  * Uses non-blocking I/O for better scalability.
+ * Each call is timed as a JFR {@link BackendCallEvent} and carries the remaining request {@link Deadline}.
  */
 @RegisterRestClient(configKey = "backend-service")
+@RegisterProvider(BackendCallTimingFilter.class)
+@RegisterProvider(DeadlinePropagationFilter.class)
 @Path("/")
 public interface BackendServiceClient {
     
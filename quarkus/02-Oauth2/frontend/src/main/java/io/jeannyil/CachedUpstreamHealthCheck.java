@@ -0,0 +1,81 @@
+package io.jeannyil;
+
+import io.smallrye.health.api.AsyncHealthCheck;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Base class for upstream health checks.
+ * <p>
+ * The check first looks at the latest outcome recorded by {@link UpstreamHealthTracker}.
+ * If real traffic (or a previous probe) reached the upstream within {@code health.upstream.cache-interval},
+ * that outcome is reported as is. Only when the upstream has been idle for longer does the check
+ * fire a single active probe, shared by all concurrent health requests, whose result is cached
+ * for the next interval. Kubelet probes therefore never add load to the upstream on a busy pod.
+ */
+public abstract class CachedUpstreamHealthCheck implements AsyncHealthCheck {
+
+    @Inject
+    UpstreamHealthTracker tracker;
+
+    @ConfigProperty(name = "health.upstream.cache-interval", defaultValue = "30s")
+    Duration cacheInterval;
+
+    @ConfigProperty(name = "health.upstream.probe-timeout", defaultValue = "3s")
+    Duration probeTimeout;
+
+    private final AtomicReference<Uni<UpstreamHealthTracker.Outcome>> inFlightProbe = new AtomicReference<>();
+
+    /**
+     * @return the health check name reported by SmallRye Health
+     */
+    protected abstract String name();
+
+    /**
+     * @return the upstream key used with {@link UpstreamHealthTracker}
+     */
+    protected abstract String upstream();
+
+    /**
+     * Performs a lightweight request against the upstream.
+     * @return Uni with the HTTP status code returned by the upstream
+     */
+    protected abstract Uni<Integer> probe();
+
+    @Override
+    public Uni<HealthCheckResponse> call() {
+        UpstreamHealthTracker.Outcome latest = tracker.latest(upstream());
+        if (latest != null && latest.ageMillis() < cacheInterval.toMillis()) {
+            return Uni.createFrom().item(toResponse(latest));
+        }
+        return activeProbe().map(this::toResponse);
+    }
+
+    private Uni<UpstreamHealthTracker.Outcome> activeProbe() {
+        Uni<UpstreamHealthTracker.Outcome> current = inFlightProbe.get();
+        if (current != null) {
+            return current;
+        }
+        Uni<UpstreamHealthTracker.Outcome> probe = probe()
+                .ifNoItem().after(probeTimeout).fail()
+                .map(status -> tracker.record(upstream(), status, UpstreamHealthTracker.SOURCE_PROBE))
+                .onFailure().recoverWithItem(e -> tracker.record(upstream(), e, UpstreamHealthTracker.SOURCE_PROBE))
+                .onTermination().invoke(() -> inFlightProbe.set(null))
+                .memoize().indefinitely();
+        return inFlightProbe.compareAndSet(null, probe) ? probe : activeProbe();
+    }
+
+    private HealthCheckResponse toResponse(UpstreamHealthTracker.Outcome outcome) {
+        return HealthCheckResponse.named(name())
+                .status(outcome.up())
+                .withData("source", outcome.source())
+                .withData("detail", outcome.detail())
+                .withData("age-ms", outcome.ageMillis())
+                .build();
+    }
+}
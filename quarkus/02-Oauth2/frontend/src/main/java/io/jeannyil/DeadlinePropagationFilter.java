@@ -0,0 +1,17 @@
+package io.jeannyil;
+
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+
+/**
+ * Forwards what is left of the current request's {@link Deadline} to the backend in the
+ * {@value Deadline#HEADER} header, so the backend stops working on calls the frontend has given up on.
+ */
+public class DeadlinePropagationFilter implements ClientRequestFilter {
+
+    @Override
+    public void filter(ClientRequestContext requestContext) {
+        Deadline.current().ifPresent(deadline ->
+                requestContext.getHeaders().putSingle(Deadline.HEADER, String.valueOf(deadline.remainingMillis())));
+    }
+}
@@ -0,0 +1,163 @@
+package io.jeannyil;
+
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.vertx.http.ManagementInterface;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-demand JDK Flight Recorder recordings, including the custom proxy hop events.
+ * <p>
+ * The routes live on the management interface ({@code quarkus.management.port}), which is not exposed
+ * by the OpenShift route, and only exist when {@code jfr.endpoint.enabled=true}. Only one recording runs
+ * at a time; it is bounded by {@code jfr.recording.max-duration} and {@code jfr.recording.max-size}.
+ * Events that would copy environment variables, system properties or command lines (and with them client
+ * secrets) into the recording are always disabled.
+ */
+@ApplicationScoped
+public class FlightRecordingResource {
+
+    private static final Logger LOG = Logger.getLogger(FlightRecordingResource.class);
+
+    private static final String PATH = "/q/jfr";
+
+    // Events of the JDK profiles whose payload can contain secrets passed as env vars or -D options
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation", "jdk.SystemProcess");
+
+    @ConfigProperty(name = "jfr.endpoint.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "jfr.recording.settings", defaultValue = "default")
+    String settings;
+
+    @ConfigProperty(name = "jfr.recording.max-duration", defaultValue = "5m")
+    Duration maxDuration;
+
+    @ConfigProperty(name = "jfr.recording.max-size", defaultValue = "32M")
+    MemorySize maxSize;
+
+    private Recording recording;
+
+    void registerRoutes(@Observes ManagementInterface managementInterface) {
+        if (!enabled) {
+            return;
+        }
+        Router router = managementInterface.router();
+        // All routes share the recording monitor, held while a recording is dumped to disk: keep them off the event loop
+        router.get(PATH).blockingHandler(ctx -> json(ctx, 200, status()));
+        router.post(PATH + "/start").blockingHandler(this::start);
+        router.post(PATH + "/stop").blockingHandler(this::stop);
+        router.get(PATH + "/recording").blockingHandler(this::download);
+        LOG.infof("JFR recording endpoint available on the management interface under %s", PATH);
+    }
+
+    private synchronized JsonObject status() {
+        return new JsonObject().put("state", recording != null ? recording.getState().name() : "NONE");
+    }
+
+    private synchronized void start(RoutingContext ctx) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            error(ctx, 409, "A recording is already running");
+            return;
+        }
+        String duration = ctx.request().getParam("duration");
+        Duration requested;
+        try {
+            requested = duration != null ? DurationConverter.parseDuration(duration) : maxDuration;
+        } catch (IllegalArgumentException e) {
+            requested = null;
+        }
+        if (requested == null || requested.isNegative() || requested.isZero()) {
+            error(ctx, 400, "Invalid duration");
+            return;
+        }
+        Duration bounded = requested.compareTo(maxDuration) > 0 ? maxDuration : requested;
+        try {
+            if (recording != null) {
+                recording.close();
+            }
+            Map<String, String> recordingSettings = new HashMap<>(Configuration.getConfiguration(settings).getSettings());
+            SENSITIVE_EVENTS.forEach(event -> recordingSettings.put(event + "#enabled", "false"));
+            recording = new Recording(recordingSettings);
+            recording.setName("keycloak-playground");
+            recording.setToDisk(true);
+            recording.setDuration(bounded);
+            recording.setMaxSize(maxSize.asLongValue());
+            recording.start();
+        } catch (Exception e) {
+            LOG.errorf(e, "Could not start JFR recording: %s", e.getMessage());
+            recording = null;
+            error(ctx, 500, "Could not start recording");
+            return;
+        }
+        LOG.infof("JFR recording started (settings: %s, duration: %s, max size: %d bytes)",
+                settings, bounded, maxSize.asLongValue());
+        json(ctx, 200, status().put("duration", bounded.toString()));
+    }
+
+    private synchronized void stop(RoutingContext ctx) {
+        if (recording == null) {
+            error(ctx, 404, "No recording");
+            return;
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            LOG.info("JFR recording stopped");
+        }
+        json(ctx, 200, status());
+    }
+
+    private synchronized void download(RoutingContext ctx) {
+        if (recording == null) {
+            error(ctx, 404, "No recording");
+            return;
+        }
+        java.nio.file.Path file;
+        try {
+            file = Files.createTempFile("keycloak-playground-", ".jfr");
+            recording.dump(file);
+        } catch (Exception e) {
+            LOG.errorf(e, "Could not dump JFR recording: %s", e.getMessage());
+            error(ctx, 500, "Could not dump recording");
+            return;
+        }
+        ctx.response()
+                .putHeader("Content-Type", "application/octet-stream")
+                .putHeader("Content-Disposition", "attachment; filename=\"" + file.getFileName() + "\"")
+                .sendFile(file.toString())
+                .onComplete(sent -> {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (Exception e) {
+                        LOG.debugf("Could not delete %s: %s", file, e.getMessage());
+                    }
+                });
+    }
+
+    private static void error(RoutingContext ctx, int status, String message) {
+        json(ctx, status, new JsonObject().put("error", message));
+    }
+
+    private static void json(RoutingContext ctx, int status, JsonObject body) {
+        ctx.response()
+                .setStatusCode(status)
+                .putHeader("Content-Type", "application/json")
+                .end(body.encode());
+    }
+}
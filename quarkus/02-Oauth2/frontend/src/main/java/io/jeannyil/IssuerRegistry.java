@@ -0,0 +1,297 @@
+package io.jeannyil;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.mutiny.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Registry of the issuers the proxy is allowed to talk to.
+ * <p>
+ * Callers may only reach the default issuer, issuers listed in {@code issuers.allowed} or issuers
+ * matching {@code issuers.allowed-pattern}. Each issuer in use gets its own {@link IssuerClient}
+ * (connection pool and discovery cache). Besides the default issuer's client, which is never evicted,
+ * at most {@code issuers.max-active} clients are kept, least recently used first out, and clients idle
+ * for {@code issuers.idle-timeout} are closed, so sockets and memory stay bounded however many realms
+ * are in use.
+ * <p>
+ * Failed discovery lookups (e.g. a made-up realm name matching the allowed pattern) are remembered for
+ * {@code issuers.discovery.negative-ttl} and the issuer's client is dropped at once, so unknown realms
+ * neither hold a pool nor reach Keycloak again until then.
+ */
+@ApplicationScoped
+public class IssuerRegistry {
+
+    private static final Logger LOG = Logger.getLogger(IssuerRegistry.class);
+
+    // Keycloak serves all endpoints of a realm below this path of the issuer
+    private static final String KEYCLOAK_ENDPOINTS_PATH = "/protocol/openid-connect/";
+
+    // Percent-encoded '.', '/' and '\', which the issuer would decode after the path was checked
+    private static final Pattern ENCODED_PATH_SEPARATORS = Pattern.compile("%(2e|2f|5c)", Pattern.CASE_INSENSITIVE);
+
+    // Upper bound of remembered failed discovery lookups, oldest dropped first
+    static final int MAX_FAILED_DISCOVERIES = 1024;
+
+    private record FailedDiscovery(IssuerClient.Discovery discovery, long expiresAt) {
+    }
+
+    @ConfigProperty(name = "quarkus.oidc.auth-server-url", defaultValue = "http://localhost:8080/realms/demo")
+    String defaultIssuer;
+
+    @ConfigProperty(name = "issuers.allowed")
+    Optional<List<String>> allowedIssuers;
+
+    @ConfigProperty(name = "issuers.allowed-pattern")
+    Optional<String> allowedIssuerPattern;
+
+    @ConfigProperty(name = "issuers.max-active", defaultValue = "16")
+    int maxActive;
+
+    @ConfigProperty(name = "issuers.idle-timeout", defaultValue = "10m")
+    Duration idleTimeout;
+
+    @ConfigProperty(name = "issuers.discovery.ttl", defaultValue = "5m")
+    Duration discoveryTtl;
+
+    @ConfigProperty(name = "issuers.discovery.negative-ttl", defaultValue = "30s")
+    Duration discoveryNegativeTtl;
+
+    @ConfigProperty(name = "issuers.discovery.timeout", defaultValue = "5s")
+    Duration discoveryTimeout;
+
+    @ConfigProperty(name = "issuers.http.max-pool-size", defaultValue = "8")
+    int maxPoolSize;
+
+    @ConfigProperty(name = "issuers.http.max-wait-queue-size", defaultValue = "64")
+    int maxWaitQueueSize;
+
+    @ConfigProperty(name = "issuers.http.connect-timeout", defaultValue = "5s")
+    Duration connectTimeout;
+
+    @ConfigProperty(name = "issuers.http.request-timeout", defaultValue = "10s")
+    Duration requestTimeout;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    SaturationMetrics saturationMetrics;
+
+    private Pattern allowedPattern;
+
+    private long sweepTimerId;
+
+    private IssuerClient defaultClient;
+
+    // Access-ordered: iteration starts with the least recently used issuer (the default issuer is not in here)
+    private final LinkedHashMap<String, IssuerClient> clients = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IssuerClient> eldest) {
+            if (size() > maxActive) {
+                LOG.infof("Evicting least recently used issuer client: %s", eldest.getKey());
+                eldest.getValue().retire();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final LinkedHashMap<String, FailedDiscovery> failedDiscoveries = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FailedDiscovery> eldest) {
+            return size() > MAX_FAILED_DISCOVERIES;
+        }
+    };
+
+    @PostConstruct
+    void initialize() {
+        this.defaultIssuer = normalize(defaultIssuer);
+        this.allowedPattern = allowedIssuerPattern.map(Pattern::compile).orElse(null);
+        this.defaultClient = createClient(defaultIssuer);
+        long sweepInterval = Math.max(1000, idleTimeout.toMillis() / 2);
+        this.sweepTimerId = vertx.setPeriodic(sweepInterval, id -> evictIdle());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        vertx.cancelTimer(sweepTimerId);
+        synchronized (clients) {
+            clients.values().forEach(IssuerClient::retire);
+            clients.clear();
+        }
+        defaultClient.retire();
+    }
+
+    public String defaultIssuer() {
+        return defaultIssuer;
+    }
+
+    public boolean isAllowed(String issuer) {
+        if (issuer == null) {
+            return false;
+        }
+        String normalized = normalize(issuer);
+        return defaultIssuer.equals(normalized)
+                || allowedIssuers.map(list -> list.stream().map(IssuerRegistry::normalize).anyMatch(normalized::equals)).orElse(false)
+                || (allowedPattern != null && allowedPattern.matcher(normalized).matches());
+    }
+
+    /**
+     * @param issuer the issuer URL, or {@code null} for the default issuer
+     * @return the client of the issuer, or empty if the issuer is not allowed
+     */
+    public Optional<IssuerClient> forIssuer(String issuer) {
+        String normalized = issuer != null ? normalize(issuer) : defaultIssuer;
+        if (!isAllowed(normalized)) {
+            return Optional.empty();
+        }
+        return Optional.of(currentClient(normalized));
+    }
+
+    /**
+     * Returns the discovery document of an issuer (see {@link IssuerClient#discovery()}), or the remembered
+     * result of a recent failed lookup.
+     * @param issuer the issuer URL, or {@code null} for the default issuer
+     * @return the discovery document, or empty if the issuer is not allowed
+     */
+    public Optional<Uni<IssuerClient.Discovery>> discovery(String issuer) {
+        String normalized = issuer != null ? normalize(issuer) : defaultIssuer;
+        if (!isAllowed(normalized)) {
+            return Optional.empty();
+        }
+        FailedDiscovery failed;
+        synchronized (failedDiscoveries) {
+            failed = failedDiscoveries.get(normalized);
+        }
+        if (failed != null && failed.expiresAt() > System.currentTimeMillis()) {
+            return Optional.of(Uni.createFrom().item(failed.discovery()));
+        }
+        IssuerClient client = currentClient(normalized);
+        return Optional.of(client.discovery().invoke(discovery -> {
+            if (!discovery.fromCache() && discovery.statusCode() != 200) {
+                discoveryFailed(client, discovery);
+            }
+        }));
+    }
+
+    /**
+     * Resolves the issuer owning an endpoint URL (token, userinfo, end session, ...).
+     * @return the client of the owning issuer, or empty if the endpoint does not belong to an allowed issuer
+     */
+    public Optional<IssuerClient> forEndpoint(String endpointUrl) {
+        String issuer = issuerOf(endpointUrl);
+        return issuer != null ? forIssuer(issuer) : Optional.empty();
+    }
+
+    public boolean isAllowedEndpoint(String endpointUrl) {
+        String issuer = issuerOf(endpointUrl);
+        return issuer != null && isAllowed(issuer);
+    }
+
+    /**
+     * Issuer of an endpoint URL, taken from its normalized path so that {@code ..} segments cannot lead
+     * from an allowed issuer to other paths of the same host. Percent-encoded dots and slashes, which the
+     * issuer would decode after this check, are refused.
+     */
+    static String issuerOf(String endpointUrl) {
+        if (endpointUrl == null) {
+            return null;
+        }
+        URI uri;
+        try {
+            uri = new URI(endpointUrl).normalize();
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        String path = uri.getRawPath();
+        if (uri.getScheme() == null || uri.getRawAuthority() == null || path == null
+                || path.startsWith("/..") || ENCODED_PATH_SEPARATORS.matcher(path).find()) {
+            return null;
+        }
+        int index = path.indexOf(KEYCLOAK_ENDPOINTS_PATH);
+        return index >= 0 ? uri.getScheme() + "://" + uri.getRawAuthority() + path.substring(0, index) : null;
+    }
+
+    private IssuerClient currentClient(String normalizedIssuer) {
+        if (defaultIssuer.equals(normalizedIssuer)) {
+            return defaultClient;
+        }
+        synchronized (clients) {
+            return clients.computeIfAbsent(normalizedIssuer, this::createClient);
+        }
+    }
+
+    private void discoveryFailed(IssuerClient client, IssuerClient.Discovery discovery) {
+        synchronized (failedDiscoveries) {
+            failedDiscoveries.put(client.issuer(), new FailedDiscovery(
+                    new IssuerClient.Discovery(discovery.statusCode(), discovery.body(), true),
+                    System.currentTimeMillis() + discoveryNegativeTtl.toMillis()));
+        }
+        if (client == defaultClient) {
+            return;
+        }
+        boolean removed;
+        synchronized (clients) {
+            removed = clients.remove(client.issuer(), client);
+        }
+        if (removed) {
+            LOG.infof("Dropping issuer client after failed discovery (HTTP %d): %s", discovery.statusCode(), client.issuer());
+            client.retire();
+        }
+    }
+
+    private IssuerClient createClient(String issuer) {
+        LOG.infof("Creating issuer client: %s (max pool size: %d)", issuer, maxPoolSize);
+        HttpClientOptions options = new HttpClientOptions()
+                .setConnectTimeout((int) connectTimeout.toMillis());
+        PoolOptions poolOptions = new PoolOptions()
+                .setHttp1MaxSize(maxPoolSize)
+                .setMaxWaitQueueSize(maxWaitQueueSize);
+        URI issuerUri = URI.create(issuer);
+        return new IssuerClient(issuer, vertx.createHttpClient(options, poolOptions), discoveryTtl.toMillis(),
+                discoveryTimeout, requestTimeout, saturationMetrics.upstream(issuerUri.getScheme() + "://" + issuerUri.getAuthority()),
+                this::currentClient);
+    }
+
+    void evictIdle() {
+        List<IssuerClient> idle = new ArrayList<>();
+        synchronized (clients) {
+            clients.values().removeIf(client -> {
+                if (client.idleMillis() > idleTimeout.toMillis()) {
+                    idle.add(client);
+                    return true;
+                }
+                return false;
+            });
+        }
+        long now = System.currentTimeMillis();
+        synchronized (failedDiscoveries) {
+            failedDiscoveries.values().removeIf(failed -> failed.expiresAt() <= now);
+        }
+        idle.forEach(client -> {
+            LOG.infof("Evicting idle issuer client: %s", client.issuer());
+            client.retire();
+        });
+    }
+
+    private static String normalize(String issuer) {
+        return issuer.endsWith("/") ? issuer.substring(0, issuer.length() - 1) : issuer;
+    }
+}
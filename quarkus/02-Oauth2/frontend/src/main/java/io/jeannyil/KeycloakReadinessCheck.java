@@ -0,0 +1,41 @@
+package io.jeannyil;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpMethod;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.Readiness;
+
+import java.util.Map;
+
+/**
+ * Readiness check for the configured Keycloak realm.
+ * Falls back to fetching the discovery document only when no recent traffic reached Keycloak.
+ */
+@Readiness
+@ApplicationScoped
+public class KeycloakReadinessCheck extends CachedUpstreamHealthCheck {
+
+    @Inject
+    IssuerRegistry issuerRegistry;
+
+    @Override
+    protected String name() {
+        return "Keycloak";
+    }
+
+    @Override
+    protected String upstream() {
+        return UpstreamHealthTracker.KEYCLOAK;
+    }
+
+    @Override
+    protected Uni<Integer> probe() {
+        // Bypass the discovery cache: the probe must actually reach Keycloak. The probe is shared by
+        // concurrent health requests, so it is bounded by health.upstream.probe-timeout, not a request deadline
+        IssuerClient issuerClient = issuerRegistry.forIssuer(null).orElseThrow();
+        return issuerClient.send("health-probe", HttpMethod.GET,
+                        issuerClient.issuer() + "/.well-known/openid-configuration", Map.of(), null, probeTimeout)
+                .map(UpstreamExchange.Result::statusCode);
+    }
+}
@@ -1,10 +1,13 @@
 package io.jeannyil;
 
+import io.quarkus.security.Authenticated;
+import io.smallrye.mutiny.TimeoutException;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerRequest;
-import io.vertx.mutiny.core.Vertx;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
 import io.vertx.mutiny.core.buffer.Buffer;
-import io.vertx.mutiny.ext.web.client.WebClient;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.security.PermitAll;
 import jakarta.inject.Inject;
@@ -19,6 +22,7 @@ import org.jboss.logging.Logger;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
 
 @Path("/api")
@@ -32,18 +36,38 @@ public class OAuthProxyResource {
     @ConfigProperty(name = "quarkus.oidc.auth-server-url", defaultValue = "http://localhost:8080/realms/demo")
     String keycloakAuthServerUrl;
 
+    @ConfigProperty(name = "bootstrap.timeout.discovery", defaultValue = "2s")
+    Duration discoveryTimeout;
+
+    @ConfigProperty(name = "bootstrap.timeout.backend", defaultValue = "2s")
+    Duration backendTimeout;
+
     @Inject
     @RestClient
     BackendServiceClient backendClient;
 
     @Inject
-    Vertx vertx;
+    @RestClient
+    BackendServiceAccountClient backendServiceAccountClient;
+
+    @Inject
+    ServiceTokenManager serviceTokenManager;
+
+    @Inject
+    IssuerRegistry issuerRegistry;
+
+    @Inject
+    UpstreamHealthTracker healthTracker;
+
+    @Inject
+    SaturationMetrics saturationMetrics;
 
-    private WebClient webClient;
+    private String keycloakOrigin;
 
     @PostConstruct
     void initialize() {
-        this.webClient = WebClient.create(vertx);
+        URI authServer = URI.create(keycloakAuthServerUrl);
+        this.keycloakOrigin = authServer.getScheme() + "://" + authServer.getAuthority();
     }
 
     @GET
@@ -54,7 +78,61 @@ public class OAuthProxyResource {
         return Response.ok(Map.of("issuer", keycloakAuthServerUrl)).build();
     }
 
-    // Proxy endpoint for Keycloak discovery - enables distributed tracing with WebClient
+    // Page-load bootstrap - config, cached discovery, backend status and (with a bearer token) the secured
+    // backend call resolved concurrently in one round trip; each part has its own timeout
+    @GET
+    @Path("/bootstrap")
+    @PermitAll
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> bootstrap(
+            @QueryParam("issuer") String issuer,
+            @Context HttpServerRequest serverRequest) {
+
+        String resolvedIssuer = issuer != null ? issuer : keycloakAuthServerUrl;
+        String authHeader = serverRequest.getHeader("Authorization");
+        LOG.infof("GET /api/bootstrap → %s", resolvedIssuer);
+        LOG.infof("  └─ Authorization: %s", authHeader != null ? "Bearer token present" : "missing (secured call skipped)");
+
+        Uni<IssuerClient.Discovery> discoveryFetch = issuerRegistry.discovery(issuer).orElse(null);
+        if (discoveryFetch == null) {
+            return Uni.createFrom().item(issuerNotAllowed(issuer));
+        }
+
+        long started = System.nanoTime();
+        String discoveryUrl = resolvedIssuer + "/.well-known/openid-configuration";
+        Uni<JsonObject> discovery = bootstrapPart("discovery", discoveryTimeout, discoveryFetch
+                .onItem().invoke(d -> {
+                    if (!d.fromCache()) {
+                        recordKeycloakResponse(discoveryUrl, d.statusCode());
+                    }
+                })
+                .onFailure().invoke(e -> recordKeycloakFailure(discoveryUrl, e))
+                .onItem().transform(d -> partResult(d.statusCode(), d.body()).put("cached", d.fromCache())));
+
+        Uni<JsonObject> backendPublic = bootstrapPart("backend public", backendTimeout, backendPart(backendClient.getPublic()));
+        Uni<JsonObject> backendSecured = authHeader == null
+                ? skippedPart()
+                : bootstrapPart("backend secured", backendTimeout, backendPart(backendClient.getSecured(authHeader)));
+
+        return Uni.combine().all().unis(discovery, backendPublic, backendSecured).asTuple()
+                .onItem().transform(parts -> ResponseMappingEvent.record("bootstrap", () -> {
+                    long elapsedMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+                    LOG.infof("  └─ ✓ Bootstrap resolved in %dms (discovery: %s, backend: %s/%s)", elapsedMs,
+                            parts.getItem1().getString("status"), parts.getItem2().getString("status"),
+                            parts.getItem3().getString("status"));
+                    JsonObject document = new JsonObject()
+                            .put("issuer", resolvedIssuer)
+                            .put("config", new JsonObject().put("issuer", keycloakAuthServerUrl))
+                            .put("discovery", parts.getItem1())
+                            .put("backend", new JsonObject()
+                                    .put("public", parts.getItem2())
+                                    .put("secured", parts.getItem3()))
+                            .put("elapsedMs", elapsedMs);
+                    return Response.ok(document.encode()).build();
+                }));
+    }
+
+    // Proxy endpoint for Keycloak discovery - enables distributed tracing with WebClient (per-issuer pool, cached)
     @GET
     @Path("/keycloak/discovery")
     @PermitAll
@@ -62,16 +140,25 @@ public class OAuthProxyResource {
     public Uni<Response> getDiscovery(@QueryParam("issuer") String issuer) {
         String discoveryUrl = (issuer != null ? issuer : keycloakAuthServerUrl) + "/.well-known/openid-configuration";
         LOG.infof("GET /api/keycloak/discovery → %s", discoveryUrl);
+
+        Uni<IssuerClient.Discovery> discoveryFetch = issuerRegistry.discovery(issuer).orElse(null);
+        if (discoveryFetch == null) {
+            return Uni.createFrom().item(issuerNotAllowed(issuer));
+        }
         
-        return webClient.getAbs(discoveryUrl)
-                .send()
-                .onItem().transform(response -> {
-                    LOG.info("  └─ ✓ Discovery loaded successfully");
-                    return Response.status(response.statusCode())
-                            .entity(response.bodyAsString())
+        return discoveryFetch
+                .onItem().transform(discovery -> ResponseMappingEvent.record("discovery", () -> {
+                    if (!discovery.fromCache()) {
+                        recordKeycloakResponse(discoveryUrl, discovery.statusCode());
+                    }
+                    LOG.infof("  └─ ✓ Discovery loaded successfully%s", discovery.fromCache() ? " (cached)" : "");
+                    return Response.status(discovery.statusCode())
+                            .entity(discovery.body())
                             .build();
-                })
+                }))
+                .onFailure(DeadlineExceededException.class).recoverWithItem(e -> deadlineExceeded("discovery"))
                 .onFailure().recoverWithItem(e -> {
+                    recordKeycloakFailure(discoveryUrl, e);
                     LOG.errorf("  └─ ✗ Error fetching discovery: %s", e.getMessage());
                     return Response.status(500)
                             .entity("{\"error\": \"Error fetching discovery\"}")
@@ -97,6 +184,11 @@ public class OAuthProxyResource {
         LOG.infof("  └─ client_id: %s", clientId);
         LOG.infof("  └─ redirect_uri: %s", redirectUri);
         LOG.infof("  └─ code: %s", code != null ? code.substring(0, Math.min(10, code.length())) + "..." : "null");
+
+        IssuerClient issuerClient = issuerRegistry.forEndpoint(tokenEndpoint).orElse(null);
+        if (issuerClient == null) {
+            return Uni.createFrom().item(issuerNotAllowed(tokenEndpoint));
+        }
         
         String formData = String.format("grant_type=%s&code=%s&client_id=%s&redirect_uri=%s",
                 URLEncoder.encode(grantType, StandardCharsets.UTF_8),
@@ -106,26 +198,29 @@ public class OAuthProxyResource {
         
         LOG.infof("  └─ Form data prepared (length: %d)", formData.length());
         
-        return webClient.postAbs(tokenEndpoint)
-                .putHeader("Content-Type", "application/x-www-form-urlencoded")
-                .sendBuffer(Buffer.buffer(formData))
-                .onItem().transform(response -> {
+        return issuerClient.send("token", HttpMethod.POST, tokenEndpoint,
+                        Map.of("Content-Type", "application/x-www-form-urlencoded"),
+                        Buffer.buffer(formData))
+                .onItem().transform(response -> ResponseMappingEvent.record("token", () -> {
+                    recordKeycloakResponse(tokenEndpoint, response.statusCode());
                     LOG.infof("  └─ Response status: %d", response.statusCode());
-                    LOG.infof("  └─ Response body length: %d", response.bodyAsString() != null ? response.bodyAsString().length() : 0);
+                    LOG.infof("  └─ Response body length: %d", response.body().length());
                     
                     if (response.statusCode() == 200) {
                         LOG.info("  └─ ✓ Token exchange successful");
                     } else {
                         LOG.infof("  └─ ✗ Token exchange failed: %d", response.statusCode());
-                        LOG.infof("  └─ Response body: %s", response.bodyAsString());
+                        LOG.infof("  └─ Response body: %s", response.body());
                     }
                     
                     return Response.status(response.statusCode())
                             .header("Content-Type", "application/json")
-                            .entity(response.bodyAsString() != null ? response.bodyAsString() : "{}")
+                            .entity(!response.body().isEmpty() ? response.body() : "{}")
                             .build();
-                })
+                }))
+                .onFailure(DeadlineExceededException.class).recoverWithItem(e -> deadlineExceeded("token exchange"))
                 .onFailure().recoverWithItem(e -> {
+                    recordKeycloakFailure(tokenEndpoint, e);
                     LOG.errorf(e, "  └─ ✗ Error exchanging token: %s", e.getMessage());
                     return Response.status(500)
                             .header("Content-Type", "application/json")
@@ -145,6 +240,10 @@ public class OAuthProxyResource {
         
         LOG.infof("GET /api/keycloak/logout → %s", endSessionEndpoint);
         LOG.infof("  └─ id_token_hint: %s", idTokenHint != null ? "present" : "missing");
+
+        if (!issuerRegistry.isAllowedEndpoint(endSessionEndpoint)) {
+            return issuerNotAllowed(endSessionEndpoint);
+        }
         
         String logoutUrl = endSessionEndpoint + "?post_logout_redirect_uri=" + 
                 URLEncoder.encode(postLogoutRedirectUri, StandardCharsets.UTF_8);
@@ -164,21 +263,25 @@ public class OAuthProxyResource {
     public Uni<Response> invokePublicService() {
         LOG.info("GET /api/service/public → Proxying to backend /public");
         
-        return backendClient.getPublic()
-                .onItem().transform(response -> {
+        return saturationMetrics.trackUpstream(UpstreamHealthTracker.BACKEND, Deadline.enforce(backendClient.getPublic()))
+                .onItem().transform(response -> ResponseMappingEvent.record("backend-public", () -> {
+                    healthTracker.recordResponse(UpstreamHealthTracker.BACKEND, 200);
                     LOG.info("  └─ ✓ Backend responded: 200");
                     return Response.ok(response).build();
-                })
-                .onFailure(WebApplicationException.class).recoverWithItem(e -> {
+                }))
+                .onFailure(WebApplicationException.class).recoverWithItem(e -> ResponseMappingEvent.record("backend-public", () -> {
                     WebApplicationException wae = (WebApplicationException) e;
                     int status = wae.getResponse().getStatus();
+                    healthTracker.recordResponse(UpstreamHealthTracker.BACKEND, status);
                     String statusIcon = status < 400 ? "✓" : "✗";
                     LOG.infof("  └─ %s Backend responded: %d", statusIcon, status);
                     return Response.status(status)
                             .entity(wae.getMessage())
                             .build();
-                })
+                }))
+                .onFailure(DeadlineExceededException.class).recoverWithItem(e -> backendDeadlineExceeded())
                 .onFailure().recoverWithItem(e -> {
+                    healthTracker.recordFailure(UpstreamHealthTracker.BACKEND, e);
                     LOG.errorf("  └─ ✗ Error proxying to backend: %s", e.getMessage());
                     return Response.status(500)
                             .entity("Error connecting to backend service")
@@ -196,14 +299,16 @@ public class OAuthProxyResource {
         LOG.info("GET /api/service/secured → Proxying to backend /secured");
         LOG.infof("  └─ Authorization: %s", authHeader != null ? "Bearer token present" : "missing");
         
-        return backendClient.getSecured(authHeader)
-                .onItem().transform(response -> {
+        return saturationMetrics.trackUpstream(UpstreamHealthTracker.BACKEND, Deadline.enforce(backendClient.getSecured(authHeader)))
+                .onItem().transform(response -> ResponseMappingEvent.record("backend-secured", () -> {
+                    healthTracker.recordResponse(UpstreamHealthTracker.BACKEND, 200);
                     LOG.info("  └─ ✓ AUTHORIZED: 200 - Access granted (user has required 'user' role)");
                     return Response.ok(response).build();
-                })
-                .onFailure(WebApplicationException.class).recoverWithItem(e -> {
+                }))
+                .onFailure(WebApplicationException.class).recoverWithItem(e -> ResponseMappingEvent.record("backend-secured", () -> {
                     WebApplicationException wae = (WebApplicationException) e;
                     int status = wae.getResponse().getStatus();
+                    healthTracker.recordResponse(UpstreamHealthTracker.BACKEND, status);
                     String statusIcon = status < 400 ? "✓" : "✗";
                     
                     // Provide user-friendly error messages
@@ -229,12 +334,136 @@ public class OAuthProxyResource {
                     return Response.status(status)
                             .entity(userMessage)
                             .build();
-                })
+                }))
+                .onFailure(DeadlineExceededException.class).recoverWithItem(e -> backendDeadlineExceeded())
+                .onFailure().recoverWithItem(e -> {
+                    healthTracker.recordFailure(UpstreamHealthTracker.BACKEND, e);
+                    LOG.errorf("  └─ ✗ Error proxying to backend: %s", e.getMessage());
+                    return Response.status(500)
+                            .entity("Error connecting to backend service")
+                            .build();
+                });
+    }
+
+    // Proxy endpoint for a service-level backend call - authenticated as the frontend itself (client credentials);
+    // only for callers with a valid bearer token, so anonymous clients cannot borrow the frontend's identity
+    @GET
+    @Path("/service/service-account")
+    @Authenticated
+    @Produces(MediaType.TEXT_PLAIN)
+    public Uni<Response> invokeServiceAccountService() {
+        LOG.info("GET /api/service/service-account → Proxying to backend /secured with the frontend service token");
+
+        if (!serviceTokenManager.isEnabled()) {
+            LOG.warn("  └─ ✗ Service token disabled (service-token.enabled=false)");
+            return Uni.createFrom().item(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity("Service account calls are disabled")
+                    .build());
+        }
+
+        return saturationMetrics.trackUpstream(UpstreamHealthTracker.BACKEND, Deadline.enforce(backendServiceAccountClient.getSecured()))
+                .onItem().transform(response -> ResponseMappingEvent.record("backend-service-account", () -> {
+                    healthTracker.recordResponse(UpstreamHealthTracker.BACKEND, 200);
+                    LOG.info("  └─ ✓ AUTHORIZED: 200 - Service account accepted");
+                    return Response.ok(response).build();
+                }))
+                .onFailure(WebApplicationException.class).recoverWithItem(e -> ResponseMappingEvent.record("backend-service-account", () -> {
+                    int status = ((WebApplicationException) e).getResponse().getStatus();
+                    healthTracker.recordResponse(UpstreamHealthTracker.BACKEND, status);
+                    LOG.infof("  └─ ✗ DENIED: %d - Service account rejected", status);
+                    return Response.status(status)
+                            .entity(status == 403
+                                    ? "Access denied: Service account does not have the required 'user' role"
+                                    : "Access denied")
+                            .build();
+                }))
+                .onFailure(DeadlineExceededException.class).recoverWithItem(e -> backendDeadlineExceeded())
                 .onFailure().recoverWithItem(e -> {
+                    healthTracker.recordFailure(UpstreamHealthTracker.BACKEND, e);
                     LOG.errorf("  └─ ✗ Error proxying to backend: %s", e.getMessage());
                     return Response.status(500)
                             .entity("Error connecting to backend service")
                             .build();
                 });
     }
+
+    private Response deadlineExceeded(String call) {
+        LOG.warnf("  └─ ✗ Deadline exceeded during %s", call);
+        return Response.status(Response.Status.GATEWAY_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .entity(RequestDeadlines.EXCEEDED_BODY)
+                .build();
+    }
+
+    private Response backendDeadlineExceeded() {
+        LOG.warn("  └─ ✗ Deadline exceeded waiting for the backend");
+        return Response.status(Response.Status.GATEWAY_TIMEOUT)
+                .entity("Backend did not answer within the request deadline")
+                .build();
+    }
+
+    private Response issuerNotAllowed(String target) {
+        LOG.warnf("  └─ ✗ Issuer not allowed: %s", target);
+        return Response.status(Response.Status.FORBIDDEN)
+                .header("Content-Type", "application/json")
+                .entity("{\"error\": \"Issuer not allowed\"}")
+                .build();
+    }
+
+    // Only traffic to the configured Keycloak counts towards its health (callers may point at any issuer)
+    private void recordKeycloakResponse(String url, int statusCode) {
+        if (url != null && url.startsWith(keycloakOrigin)) {
+            healthTracker.recordResponse(UpstreamHealthTracker.KEYCLOAK, statusCode);
+        }
+    }
+
+    private void recordKeycloakFailure(String url, Throwable failure) {
+        if (url != null && url.startsWith(keycloakOrigin)) {
+            healthTracker.recordFailure(UpstreamHealthTracker.KEYCLOAK, failure);
+        }
+    }
+
+    // Bounds one bootstrap part and turns a timeout or failure into a partial result
+    private Uni<JsonObject> bootstrapPart(String part, Duration timeout, Uni<JsonObject> upstream) {
+        return upstream
+                .ifNoItem().after(timeout).fail()
+                .onFailure(TimeoutException.class).recoverWithItem(e -> {
+                    LOG.warnf("  └─ ✗ Bootstrap %s timed out after %dms", part, timeout.toMillis());
+                    return new JsonObject().put("status", "timeout");
+                })
+                .onFailure().recoverWithItem(e -> {
+                    LOG.errorf("  └─ ✗ Bootstrap %s failed: %s", part, e.getMessage());
+                    return new JsonObject().put("status", "error").put("error", "Error fetching " + part);
+                });
+    }
+
+    private Uni<JsonObject> backendPart(Uni<String> call) {
+        return saturationMetrics.trackUpstream(UpstreamHealthTracker.BACKEND, Deadline.enforce(call))
+                .onItem().transform(body -> {
+                    healthTracker.recordResponse(UpstreamHealthTracker.BACKEND, 200);
+                    return new JsonObject().put("status", "ok").put("statusCode", 200).put("body", body);
+                })
+                .onFailure(WebApplicationException.class).recoverWithItem(e -> {
+                    int status = ((WebApplicationException) e).getResponse().getStatus();
+                    healthTracker.recordResponse(UpstreamHealthTracker.BACKEND, status);
+                    return new JsonObject().put("status", "error").put("statusCode", status);
+                })
+                .onFailure(e -> !(e instanceof DeadlineExceededException))
+                .invoke(e -> healthTracker.recordFailure(UpstreamHealthTracker.BACKEND, e));
+    }
+
+    private static Uni<JsonObject> skippedPart() {
+        return Uni.createFrom().item(new JsonObject().put("status", "skipped"));
+    }
+
+    private static JsonObject partResult(int statusCode, String body) {
+        JsonObject result = new JsonObject()
+                .put("status", statusCode == 200 ? "ok" : "error")
+                .put("statusCode", statusCode);
+        try {
+            return result.put("body", body == null || body.isEmpty() ? null : new JsonObject(body));
+        } catch (DecodeException e) {
+            return result.put("body", body);
+        }
+    }
 }
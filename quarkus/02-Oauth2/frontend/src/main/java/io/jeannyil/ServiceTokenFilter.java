@@ -0,0 +1,48 @@
+package io.jeannyil;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+import org.jboss.resteasy.reactive.client.spi.ResteasyReactiveClientRequestContext;
+import org.jboss.resteasy.reactive.client.spi.ResteasyReactiveClientRequestFilter;
+
+/**
+ * Adds the frontend's own service token ({@link ServiceTokenManager}) to calls made through
+ * {@link BackendServiceAccountClient}. The cached token is added inline; the request is only
+ * suspended when a token has to be fetched first. A token rejected with 401 is discarded.
+ */
+public class ServiceTokenFilter implements ResteasyReactiveClientRequestFilter, ClientResponseFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    @Inject
+    ServiceTokenManager tokenManager;
+
+    @Override
+    public void filter(ResteasyReactiveClientRequestContext requestContext) {
+        String cached = tokenManager.cachedToken().orElse(null);
+        if (cached != null) {
+            requestContext.getHeaders().putSingle(HttpHeaders.AUTHORIZATION, BEARER + cached);
+            return;
+        }
+        requestContext.suspend();
+        tokenManager.token().subscribe().with(
+                token -> {
+                    requestContext.getHeaders().putSingle(HttpHeaders.AUTHORIZATION, BEARER + token);
+                    requestContext.resume();
+                },
+                requestContext::resume);
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+        if (responseContext.getStatus() == Response.Status.UNAUTHORIZED.getStatusCode()
+                && requestContext.getHeaderString(HttpHeaders.AUTHORIZATION) instanceof String header
+                && header.startsWith(BEARER)) {
+            tokenManager.invalidate(header.substring(BEARER.length()));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package io.jeannyil;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.core.buffer.Buffer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Client-credentials access token of the frontend itself, used for service-level calls to the backend.
+ * <p>
+ * The token is fetched once and cached. It is refreshed in the background once
+ * {@code service-token.refresh-at} of its lifetime has elapsed, so callers on the hot path read the
+ * cached value and never wait for Keycloak. Concurrent refreshes share a single token request; only
+ * a missing or expired token makes a caller wait for one.
+ */
+@ApplicationScoped
+public class ServiceTokenManager {
+
+    private static final Logger LOG = Logger.getLogger(ServiceTokenManager.class);
+
+    record CachedToken(String value, long issuedAt, long refreshAt, long expiresAt) {
+    }
+
+    @ConfigProperty(name = "service-token.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "service-token.token-endpoint")
+    String tokenEndpoint;
+
+    @ConfigProperty(name = "service-token.client-id")
+    String clientId;
+
+    @ConfigProperty(name = "service-token.client-secret")
+    Optional<String> clientSecret;
+
+    @ConfigProperty(name = "service-token.scope")
+    Optional<String> scope;
+
+    @ConfigProperty(name = "service-token.refresh-at", defaultValue = "0.8")
+    double refreshAt;
+
+    @ConfigProperty(name = "service-token.timeout", defaultValue = "5s")
+    Duration timeout;
+
+    @ConfigProperty(name = "service-token.retry-interval", defaultValue = "5s")
+    Duration retryInterval;
+
+    @Inject
+    IssuerRegistry issuerRegistry;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final AtomicReference<CachedToken> current = new AtomicReference<>();
+    final AtomicReference<Uni<CachedToken>> refreshing = new AtomicReference<>();
+
+    private Timer refreshSuccess;
+    private Timer refreshFailure;
+    private volatile long refreshTimerId = -1;
+    private volatile boolean stopped;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        this.refreshSuccess = registry.timer("service.token.refresh", "outcome", "success");
+        this.refreshFailure = registry.timer("service.token.refresh", "outcome", "failure");
+        Gauge.builder("service.token.age", this, ServiceTokenManager::ageSeconds)
+                .description("Seconds since the cached service token was issued")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("service.token.remaining", this, ServiceTokenManager::remainingSeconds)
+                .description("Seconds until the cached service token expires")
+                .baseUnit("seconds")
+                .register(registry);
+        LOG.infof("Service token enabled for client %s (refresh at %.0f%% of lifetime)", clientId, refreshAt * 100);
+        refresh().subscribe().with(token -> { }, failure -> { });
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        stopped = true;
+        vertx.cancelTimer(refreshTimerId);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached token if it has not expired, without any I/O. Past its refresh point the
+     * token is still served while the scheduled background refresh replaces it.
+     */
+    public Optional<String> cachedToken() {
+        CachedToken token = current.get();
+        return token != null && System.currentTimeMillis() < token.expiresAt()
+                ? Optional.of(token.value())
+                : Optional.empty();
+    }
+
+    /**
+     * Returns a valid token, waiting for a token request only when no unexpired token is cached.
+     */
+    public Uni<String> token() {
+        if (!enabled) {
+            return Uni.createFrom().failure(new IllegalStateException("Service token is disabled (service-token.enabled=false)"));
+        }
+        return cachedToken()
+                .map(value -> Uni.createFrom().item(value))
+                .orElseGet(() -> refresh().map(CachedToken::value));
+    }
+
+    /**
+     * Drops the cached token, e.g. after the backend rejected it, so the next call fetches a new one.
+     */
+    public void invalidate(String rejectedToken) {
+        CachedToken token = current.get();
+        if (token != null && token.value().equals(rejectedToken) && current.compareAndSet(token, null)) {
+            LOG.warn("  └─ ✗ Service token rejected by backend, discarding it");
+        }
+    }
+
+    private Uni<CachedToken> refresh() {
+        while (true) {
+            Uni<CachedToken> inProgress = inFlightRefresh();
+            if (inProgress != null) {
+                return inProgress;
+            }
+            Uni<CachedToken> fetch = Uni.createFrom().deferred(this::fetchToken)
+                    .onTermination().invoke(() -> refreshing.set(null))
+                    .memoize().indefinitely();
+            if (refreshing.compareAndSet(null, fetch)) {
+                return fetch;
+            }
+            // Another caller started a refresh first; it may already have completed and cleared the reference
+        }
+    }
+
+    Uni<CachedToken> inFlightRefresh() {
+        return refreshing.get();
+    }
+
+    private Uni<CachedToken> fetchToken() {
+        IssuerClient issuerClient = issuerRegistry.forEndpoint(tokenEndpoint).orElse(null);
+        if (issuerClient == null) {
+            return Uni.createFrom().failure(new IllegalStateException("Token endpoint not allowed: " + tokenEndpoint));
+        }
+
+        StringBuilder form = new StringBuilder("grant_type=client_credentials");
+        scope.ifPresent(s -> form.append("&scope=").append(URLEncoder.encode(s, StandardCharsets.UTF_8)));
+        String credentials = URLEncoder.encode(clientId, StandardCharsets.UTF_8) + ":"
+                + URLEncoder.encode(clientSecret.orElse(""), StandardCharsets.UTF_8);
+        Map<String, String> headers = Map.of(
+                "Content-Type", "application/x-www-form-urlencoded",
+                "Authorization", "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+
+        long started = System.nanoTime();
+        // Shared by every caller waiting for a token: bounded by service-token.timeout rather than a request deadline
+        return issuerClient.send("service-token", HttpMethod.POST, tokenEndpoint, headers, Buffer.buffer(form.toString()), timeout)
+                .ifNoItem().after(timeout).fail()
+                .map(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("Token endpoint returned " + response.statusCode());
+                    }
+                    JsonObject body = new JsonObject(response.body());
+                    long issuedAt = System.currentTimeMillis();
+                    long lifetimeMillis = body.getLong("expires_in", 60L) * 1000;
+                    return new CachedToken(body.getString("access_token"), issuedAt,
+                            issuedAt + (long) (lifetimeMillis * refreshAt), issuedAt + lifetimeMillis);
+                })
+                .invoke(token -> {
+                    refreshSuccess.record(Duration.ofNanos(System.nanoTime() - started));
+                    current.set(token);
+                    LOG.infof("  └─ ✓ Service token obtained (expires in %ds)", (token.expiresAt() - token.issuedAt()) / 1000);
+                    schedule(token.refreshAt() - token.issuedAt());
+                })
+                .onFailure().invoke(e -> {
+                    refreshFailure.record(Duration.ofNanos(System.nanoTime() - started));
+                    LOG.errorf("  └─ ✗ Service token request failed: %s", e.getMessage());
+                    schedule(retryInterval.toMillis());
+                });
+    }
+
+    private void schedule(long delayMillis) {
+        if (stopped) {
+            return;
+        }
+        vertx.cancelTimer(refreshTimerId);
+        refreshTimerId = vertx.setTimer(Math.max(1, delayMillis),
+                id -> refresh().subscribe().with(token -> { }, failure -> { }));
+    }
+
+    private double ageSeconds() {
+        CachedToken token = current.get();
+        return token == null ? Double.NaN : (System.currentTimeMillis() - token.issuedAt()) / 1000.0;
+    }
+
+    private double remainingSeconds() {
+        CachedToken token = current.get();
+        return token == null ? Double.NaN : (token.expiresAt() - System.currentTimeMillis()) / 1000.0;
+    }
+}
@@ -0,0 +1,20 @@
+package io.jeannyil;
+
+import io.vertx.core.http.HttpMethod;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.jeannyil.UpstreamFirstByte")
+@Label("Upstream Time To First Byte")
+@Description("Time between the end of the request write and the upstream response headers")
+public class UpstreamFirstByteEvent extends UpstreamPhaseEvent {
+
+    @Label("Status Code")
+    public int statusCode;
+
+    void complete(String hop, HttpMethod method, String url, int statusCode) {
+        this.statusCode = statusCode;
+        complete(hop, method, url);
+    }
+}
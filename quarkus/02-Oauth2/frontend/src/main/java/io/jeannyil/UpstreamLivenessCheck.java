@@ -0,0 +1,30 @@
+package io.jeannyil;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.Liveness;
+
+/**
+ * Liveness check reporting the last known upstream outcomes.
+ * Always UP: restarting the pod does not fix an unreachable upstream, so upstream
+ * state only affects readiness. Never calls the upstream.
+ */
+@Liveness
+@ApplicationScoped
+public class UpstreamLivenessCheck implements HealthCheck {
+
+    @Inject
+    UpstreamHealthTracker tracker;
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder builder = HealthCheckResponse.named("Upstreams").up();
+        tracker.snapshot().forEach((upstream, outcome) -> builder.withData(upstream,
+                String.format("%s (%s, %s, %dms ago)", outcome.up() ? "UP" : "DOWN",
+                        outcome.detail(), outcome.source(), outcome.ageMillis())));
+        return builder.build();
+    }
+}
@@ -0,0 +1,35 @@
+package io.jeannyil;
+
+import io.vertx.core.http.HttpMethod;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base class of the JFR events emitted for each phase of an upstream call (see {@link UpstreamExchange}).
+ * Events are only committed while a recording that enables them is running.
+ */
+@Category({"Keycloak Playground", "Upstream"})
+@StackTrace(false)
+public abstract class UpstreamPhaseEvent extends Event {
+
+    @Label("Hop")
+    public String hop;
+
+    @Label("Method")
+    public String method;
+
+    @Label("URL")
+    public String url;
+
+    void complete(String hop, HttpMethod method, String url) {
+        end();
+        if (shouldCommit()) {
+            this.hop = hop;
+            this.method = method.name();
+            this.url = url;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package io.jeannyil;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.jeannyil.UpstreamRequestWrite")
+@Label("Upstream Request Write")
+@Description("Time to write the request headers and body to the upstream connection")
+public class UpstreamRequestWriteEvent extends UpstreamPhaseEvent {
+}
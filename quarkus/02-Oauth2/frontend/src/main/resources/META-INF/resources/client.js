@@ -7,6 +7,13 @@ function loadDiscovery() {
     var issuer = getInput('input-issuer');
     setState('issuer', issuer);
 
+    // Already resolved by /api/bootstrap on page load
+    if (bootstrap.issuer === issuer && bootstrap.discovery && bootstrap.discovery.status === 'ok') {
+        setState('discovery', bootstrap.discovery.body);
+        setOutput('output-discovery', state.discovery);
+        return;
+    }
+
     var req = new XMLHttpRequest();
     req.onreadystatechange = function() {
         if (req.readyState === 4) {
@@ -167,6 +174,7 @@ function invokeSecuredService() {
 
 var steps = ['discovery', 'authorization', 'invoke']
 var state = loadState();
+var bootstrap = {};
 
 function reset() {
     localStorage.removeItem('state');
@@ -296,15 +304,34 @@ function base64UrlDecode(input) {
     return atob(input);
 }
 
+function setBackendOutput(id, part) {
+    if (part.statusCode) {
+        var statusIcon = part.statusCode < 400 ? '✓' : '✗';
+        setOutput(id, statusIcon + ' [' + part.statusCode + '] ' + (part.body || ''));
+    }
+}
+
 function init() {
-    // Load issuer from configuration
-    fetch('/api/config')
+    // Load config, discovery and backend status (plus the secured call with a token) in a single round trip
+    var params = [];
+    if (state.issuer) {
+        params.push('issuer=' + encodeURIComponent(state.issuer));
+    }
+    var headers = state.accessToken ? { 'Authorization': 'Bearer ' + state.accessToken } : {};
+    fetch('/api/bootstrap' + (params.length ? '?' + params.join('&') : ''), { headers: headers })
         .then(response => response.json())
-        .then(config => {
-            document.getElementById('input-issuer').value = config.issuer;
+        .then(result => {
+            bootstrap = result;
+            document.getElementById('input-issuer').value = result.config.issuer;
+            if (state.discovery && result.discovery.status === 'ok') {
+                setState('discovery', result.discovery.body);
+                setOutput('output-discovery', state.discovery);
+            }
+            setBackendOutput('output-publicResponse', result.backend.public);
+            setBackendOutput('output-securedResponse', result.backend.secured);
         })
         .catch(error => {
-            console.error('Failed to load configuration:', error);
+            console.error('Failed to load bootstrap:', error);
             // Fallback to default if config loading fails
             document.getElementById('input-issuer').value = 'http://localhost:8080/realms/demo';
         });
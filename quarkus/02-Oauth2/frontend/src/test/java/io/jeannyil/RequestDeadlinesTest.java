@@ -0,0 +1,121 @@
+package io.jeannyil;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@WithTestResource(RequestDeadlinesTest.StubBackend.class)
+class RequestDeadlinesTest {
+
+    // Backend stand-in: /public answers with the deadline it received, /secured takes longer than any test budget
+    public static class StubBackend implements QuarkusTestResourceLifecycleManager {
+
+        private Vertx vertx;
+
+        @Override
+        public Map<String, String> start() {
+            vertx = Vertx.vertx();
+            HttpServer server = vertx.createHttpServer().requestHandler(request -> {
+                if (request.path().equals("/public")) {
+                    request.response().end(String.valueOf(request.getHeader(Deadline.HEADER)));
+                } else {
+                    vertx.setTimer(2000, id -> request.response().end("Secret message!"));
+                }
+            });
+            try {
+                server.listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return Map.of("quarkus.rest-client.backend-service.url", "http://localhost:" + server.actualPort());
+        }
+
+        @Override
+        public void stop() {
+            vertx.close();
+        }
+    }
+
+    @Inject
+    MeterRegistry registry;
+
+    @Test
+    void testRouteBudgetIsForwardedToTheBackend() {
+        long forwarded = Long.parseLong(given().when().get("/api/service/public")
+                .then().statusCode(200).extract().asString());
+
+        // deadline.routes gives /api/service/public 5s
+        assertTrue(forwarded > 4000 && forwarded <= 5000, "forwarded " + forwarded);
+    }
+
+    @Test
+    void testClientBudgetIsCappedByMax() {
+        long forwarded = Long.parseLong(given().header(Deadline.HEADER, "600000")
+                .when().get("/api/service/public")
+                .then().statusCode(200).extract().asString());
+        assertTrue(forwarded > 29000 && forwarded <= 30000, "forwarded " + forwarded);
+
+        forwarded = Long.parseLong(given().header(Deadline.HEADER, "1500")
+                .when().get("/api/service/public")
+                .then().statusCode(200).extract().asString());
+        assertTrue(forwarded > 500 && forwarded <= 1500, "forwarded " + forwarded);
+    }
+
+    @Test
+    void testExhaustedBudgetIsAnswered504AndCounted() {
+        double expiredBefore = counter("deadline.expired", "/api/service/public").count();
+        given().header(Deadline.HEADER, "0")
+                .when().get("/api/service/public")
+                .then().statusCode(504).body(is(RequestDeadlines.EXCEEDED_BODY));
+        assertEquals(expiredBefore + 1, counter("deadline.expired", "/api/service/public").count());
+
+        // Runs out while the backend is working on it
+        double securedBefore = counter("deadline.expired", "/api/service/secured").count();
+        given().header(Deadline.HEADER, "300")
+                .when().get("/api/service/secured")
+                .then().statusCode(504);
+        assertEquals(securedBefore + 1, counter("deadline.expired", "/api/service/secured").count());
+    }
+
+    @Test
+    void testRequestAbandonedByTheClientIsCountedAsCancelled() throws Exception {
+        Counter cancelled = counter("deadline.cancelled", "/api/service/secured");
+        double before = cancelled.count();
+
+        try (Socket socket = new Socket("localhost", RestAssured.port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write("GET /api/service/secured HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            Thread.sleep(200);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cancelled.count() == before && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(before + 1, cancelled.count());
+    }
+
+    private Counter counter(String name, String route) {
+        return registry.find(name).tag("route", route).counter();
+    }
+}
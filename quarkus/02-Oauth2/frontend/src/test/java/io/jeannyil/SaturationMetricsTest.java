@@ -0,0 +1,81 @@
+package io.jeannyil;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.vertx.mutiny.core.Vertx;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@WithTestResource(RequestDeadlinesTest.StubBackend.class)
+class SaturationMetricsTest {
+
+    private static final Duration AWAIT = Duration.ofSeconds(5);
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    Vertx vertx;
+
+    @Test
+    void testInFlightGaugesFollowARequestHeldByTheBackend() throws Exception {
+        // The stub backend holds /secured for 2s
+        CompletableFuture<HttpResponse<String>> response = HttpClient.newHttpClient().sendAsync(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + RestAssured.port + "/api/service/secured")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        awaitCondition(() -> gauge("saturation.http.inflight", "endpoint", "/api/service/secured") == 1
+                && gauge("saturation.upstream.inflight", "target", UpstreamHealthTracker.BACKEND) == 1);
+
+        assertEquals(200, response.get().statusCode());
+        awaitCondition(() -> gauge("saturation.http.inflight", "endpoint", "/api/service/secured") == 0
+                && gauge("saturation.upstream.inflight", "target", UpstreamHealthTracker.BACKEND) == 0);
+    }
+
+    @Test
+    void testBlockedEventLoopShowsAsLag() {
+        // Blocks one event loop for longer than a probe interval (500ms); its probe waits and the lag grows
+        vertx.getDelegate().nettyEventLoopGroup().next().execute(() -> {
+            try {
+                Thread.sleep(1500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        awaitCondition(() -> registry.get("saturation.eventloop.lag.max").gauge().value() >= 0.3);
+        // Once the loop runs again, the next probes measure a normal lag
+        awaitCondition(() -> registry.get("saturation.eventloop.lag.max").gauge().value() < 0.1);
+    }
+
+    private double gauge(String name, String tag, String value) {
+        return registry.get(name).tag(tag, value).gauge().value();
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + AWAIT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within " + AWAIT);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
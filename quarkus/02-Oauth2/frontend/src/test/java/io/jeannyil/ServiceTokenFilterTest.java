@@ -0,0 +1,103 @@
+package io.jeannyil;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import org.jboss.resteasy.reactive.client.spi.ResteasyReactiveClientRequestContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServiceTokenFilterTest {
+
+    private final List<String> calls = new ArrayList<>();
+    private final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+
+    private String cachedToken;
+    private ServiceTokenFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ServiceTokenFilter();
+        filter.tokenManager = new ServiceTokenManager() {
+            @Override
+            public Optional<String> cachedToken() {
+                return Optional.ofNullable(cachedToken);
+            }
+
+            @Override
+            public Uni<String> token() {
+                calls.add("fetch");
+                return Uni.createFrom().item("fetched-token");
+            }
+
+            @Override
+            public void invalidate(String rejectedToken) {
+                calls.add("invalidate " + rejectedToken);
+            }
+        };
+    }
+
+    @Test
+    void testCachedTokenIsAddedInline() {
+        cachedToken = "cached-token";
+        filter.filter(requestContext());
+
+        assertEquals("Bearer cached-token", headers.getFirst(HttpHeaders.AUTHORIZATION));
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    void testMissingTokenSuspendsRequestUntilFetched() {
+        filter.filter(requestContext());
+
+        assertEquals("Bearer fetched-token", headers.getFirst(HttpHeaders.AUTHORIZATION));
+        assertEquals(List.of("suspend", "fetch", "resume"), calls);
+    }
+
+    @Test
+    void testUnauthorizedResponseDiscardsToken() {
+        headers.putSingle(HttpHeaders.AUTHORIZATION, "Bearer rejected-token");
+
+        filter.filter(requestContext(), responseContext(403));
+        assertTrue(calls.isEmpty());
+
+        filter.filter(requestContext(), responseContext(401));
+        assertEquals(List.of("invalidate rejected-token"), calls);
+    }
+
+    private ResteasyReactiveClientRequestContext requestContext() {
+        return (ResteasyReactiveClientRequestContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { ResteasyReactiveClientRequestContext.class, ClientRequestContext.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getHeaders" -> headers;
+                    case "getHeaderString" -> (String) headers.getFirst((String) args[0]);
+                    case "suspend", "resume" -> {
+                        calls.add(method.getName());
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static ClientResponseContext responseContext(int status) {
+        return (ClientResponseContext) Proxy.newProxyInstance(ServiceTokenFilterTest.class.getClassLoader(),
+                new Class<?>[] { ClientResponseContext.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getStatus")) {
+                        return status;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,161 @@
+package io.jeannyil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.core.buffer.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServiceTokenManagerTest {
+
+    private static final String TOKEN_ENDPOINT = "http://localhost:8080/realms/demo/protocol/openid-connect/token";
+
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+
+    private Vertx vertx;
+    private ServiceTokenManager manager;
+    private long expiresInSeconds = 300;
+    private UnaryOperator<Uni<ServiceTokenManager.CachedToken>> inFlightRead = UnaryOperator.identity();
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+        manager = new ServiceTokenManager() {
+            @Override
+            Uni<CachedToken> inFlightRefresh() {
+                return inFlightRead.apply(super.inFlightRefresh());
+            }
+        };
+        manager.enabled = true;
+        manager.tokenEndpoint = TOKEN_ENDPOINT;
+        manager.clientId = "quarkus-oauth-playground-service";
+        manager.clientSecret = Optional.of("secret");
+        manager.scope = Optional.empty();
+        manager.refreshAt = 0.8;
+        manager.timeout = Duration.ofSeconds(5);
+        manager.retryInterval = Duration.ofSeconds(5);
+        manager.vertx = vertx;
+        manager.registry = new SimpleMeterRegistry();
+        IssuerClient tokenEndpoint = new IssuerClient("http://localhost:8080/realms/demo", null, 0, Duration.ofSeconds(5),
+                Duration.ofSeconds(10), new LongAdder(), issuer -> null) {
+            @Override
+            public Uni<UpstreamExchange.Result> send(String hop, HttpMethod method, String url,
+                                                     Map<String, String> headers, Buffer body, Duration timeout) {
+                int request = tokenRequests.incrementAndGet();
+                String response = "{\"access_token\": \"token-" + request + "\", \"expires_in\": " + expiresInSeconds + "}";
+                return Uni.createFrom().item(new UpstreamExchange.Result(200, response))
+                        .onItem().delayIt().by(Duration.ofMillis(50));
+            }
+        };
+        manager.issuerRegistry = new IssuerRegistry() {
+            @Override
+            public Optional<IssuerClient> forEndpoint(String endpointUrl) {
+                return Optional.of(tokenEndpoint);
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.onStop(null);
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    void testConcurrentCallersShareOneTokenRequest() {
+        manager.onStart(null);
+        List<Uni<String>> concurrent = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            concurrent.add(manager.token());
+        }
+        List<String> tokens = Uni.join().all(concurrent).andFailFast().await().indefinitely();
+
+        assertTrue(tokens.stream().allMatch("token-1"::equals));
+        assertEquals(1, tokenRequests.get());
+        assertEquals("token-1", manager.token().await().indefinitely());
+        assertEquals(1, tokenRequests.get());
+    }
+
+    @Test
+    void testCallerLosingTheRaceToACompletedRefreshStillGetsAToken() {
+        manager.onStart(null);
+        manager.invalidate(manager.token().await().indefinitely());
+
+        long now = System.currentTimeMillis();
+        Uni<ServiceTokenManager.CachedToken> otherRefresh = Uni.createFrom()
+                .item(new ServiceTokenManager.CachedToken("token-other", now, now + 240_000, now + 300_000));
+        AtomicInteger reads = new AtomicInteger();
+        inFlightRead = inFlight -> {
+            switch (reads.incrementAndGet()) {
+                // Nothing in flight yet, but another caller starts its refresh right after this read...
+                case 1 -> manager.refreshing.set(otherRefresh);
+                // ...and that refresh completes, clearing the reference, right after it has been read
+                case 2 -> manager.refreshing.set(null);
+                default -> { }
+            }
+            return inFlight;
+        };
+
+        assertEquals("token-other", manager.token().await().indefinitely());
+        assertEquals(1, tokenRequests.get());
+    }
+
+    @Test
+    void testTokenIsRefreshedAtConfiguredFractionOfLifetime() {
+        expiresInSeconds = 4;
+        manager.refreshAt = 0.25;
+        manager.onStart(null);
+        assertEquals("token-1", manager.token().await().indefinitely());
+        assertEquals(1, tokenRequests.get());
+
+        // Refresh due after 1s, well before the 3.2s the default fraction would give
+        awaitCondition(() -> manager.cachedToken().filter(token -> !token.equals("token-1")).isPresent(),
+                Duration.ofMillis(2500));
+        assertTrue(tokenRequests.get() >= 2);
+    }
+
+    @Test
+    void testRejectedTokenIsDiscarded() {
+        manager.onStart(null);
+        String token = manager.token().await().indefinitely();
+
+        // A stale token rejected after a refresh does not drop the current one
+        manager.invalidate("token-0");
+        assertEquals(Optional.of(token), manager.cachedToken());
+
+        manager.invalidate(token);
+        assertTrue(manager.cachedToken().isEmpty());
+        assertNotEquals(token, manager.token().await().indefinitely());
+        assertEquals(2, tokenRequests.get());
+    }
+
+    private static void awaitCondition(BooleanSupplier condition, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within " + timeout);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
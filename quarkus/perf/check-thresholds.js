@@ -0,0 +1,115 @@
+// Evaluates performance-suite reports against thresholds.json and, when a
+// baseline summary is given, against the previous run of the same module and
+// mode. Writes <reports>/summary.json and exits non-zero on any violation.
+//
+// Usage: node check-thresholds.js --reports <dir> [--thresholds thresholds.json]
+//                                 [--baseline <previous summary.json>]
+
+const fs = require('fs');
+const path = require('path');
+
+function parseArgs(argv) {
+    const parsed = {};
+    for (let i = 0; i < argv.length; i += 2) {
+        parsed[argv[i].replace(/^--/, '')] = argv[i + 1];
+    }
+    return parsed;
+}
+
+function limitsFor(thresholds, ...keys) {
+    const [module, mode, scenario] = keys;
+    const overrides = thresholds.overrides || {};
+    // Most specific last; '*' matches any mode
+    return Object.assign({},
+        thresholds.limits[mode] || {},
+        overrides[`${module}/*`] || {},
+        overrides[`${module}/${mode}`] || {},
+        scenario ? overrides[`${module}/*/${scenario}`] || {} : {},
+        scenario ? overrides[`${module}/${mode}/${scenario}`] || {} : {});
+}
+
+function check(checks, run, metric, actual, limit, kind, source) {
+    if (limit === undefined || limit === null) {
+        return;
+    }
+    const passed = actual !== null && actual !== undefined && (kind === 'max' ? actual <= limit : actual >= limit);
+    checks.push({ module: run.module, mode: run.mode, metric, actual, [kind]: limit, source, passed });
+}
+
+const args = parseArgs(process.argv.slice(2));
+const reportsDir = args.reports;
+const thresholds = JSON.parse(fs.readFileSync(args.thresholds || path.join(__dirname, 'thresholds.json'), 'utf8'));
+const baseline = args.baseline && fs.existsSync(args.baseline)
+    ? JSON.parse(fs.readFileSync(args.baseline, 'utf8'))
+    : null;
+
+const runs = fs.readdirSync(reportsDir)
+    .filter(file => file.endsWith('.json') && file !== 'summary.json')
+    .map(file => JSON.parse(fs.readFileSync(path.join(reportsDir, file), 'utf8')))
+    .filter(report => report.module && report.mode && Array.isArray(report.scenarios));
+
+const checks = [];
+for (const run of runs) {
+    const limits = limitsFor(thresholds, run.module, run.mode);
+    check(checks, run, 'ttfrMs', run.ttfrMs, limits.maxTtfrMs, 'max', 'limit');
+    check(checks, run, 'idleRssMb', run.idleRssMb, limits.maxIdleRssMb, 'max', 'limit');
+    check(checks, run, 'loadRssMb', run.loadRssMb, limits.maxLoadRssMb, 'max', 'limit');
+
+    for (const scenario of run.scenarios) {
+        const scenarioLimits = limitsFor(thresholds, run.module, run.mode, scenario.scenario);
+        const name = metric => `${scenario.scenario}.${metric}`;
+        check(checks, run, name('errorRate'), scenario.errorRate, scenarioLimits.maxErrorRate, 'max', 'limit');
+        check(checks, run, name('p99Ms'), scenario.latencyMs.p99, scenarioLimits.maxP99Ms, 'max', 'limit');
+        check(checks, run, name('throughputRps'), scenario.throughputRps, scenarioLimits.minThroughputRps, 'min', 'limit');
+        for (const [endpoint, max] of Object.entries(scenarioLimits.maxStubCalls || {})) {
+            const calls = scenario.stubCalls ? scenario.stubCalls[endpoint] || 0 : null;
+            check(checks, run, name(`stubCalls[${endpoint}]`), calls, max, 'max', 'limit');
+        }
+    }
+
+    const previous = baseline && baseline.runs.find(r => r.module === run.module && r.mode === run.mode);
+    if (!previous) {
+        continue;
+    }
+    const tolerance = thresholds.regression || {};
+    const worseIfHigher = (metric, actual, before, key) =>
+        before && check(checks, run, metric, actual, Math.round(before * (1 + tolerance[key]) * 100) / 100, 'max', 'baseline');
+    const worseIfLower = (metric, actual, before, key) =>
+        before && check(checks, run, metric, actual, Math.round(before * (1 - tolerance[key]) * 100) / 100, 'min', 'baseline');
+
+    worseIfHigher('ttfrMs', run.ttfrMs, previous.ttfrMs, 'ttfrMs');
+    worseIfHigher('idleRssMb', run.idleRssMb, previous.idleRssMb, 'idleRssMb');
+    worseIfHigher('loadRssMb', run.loadRssMb, previous.loadRssMb, 'loadRssMb');
+    for (const scenario of run.scenarios) {
+        const before = previous.scenarios.find(s => s.scenario === scenario.scenario);
+        if (before) {
+            worseIfHigher(`${scenario.scenario}.p99Ms`, scenario.latencyMs.p99, before.latencyMs.p99, 'p99Ms');
+            worseIfLower(`${scenario.scenario}.throughputRps`, scenario.throughputRps, before.throughputRps, 'throughputRps');
+        }
+    }
+}
+
+const failures = checks.filter(c => !c.passed);
+const summary = {
+    generatedAt: new Date().toISOString(),
+    baseline: baseline ? args.baseline : null,
+    passed: failures.length === 0,
+    runs,
+    checks
+};
+fs.writeFileSync(path.join(reportsDir, 'summary.json'), JSON.stringify(summary, null, 2));
+
+for (const run of runs) {
+    console.log(`${run.module} (${run.mode}): first request ${run.ttfrMs}ms, RSS idle ${run.idleRssMb}MiB / load ${run.loadRssMb}MiB`);
+    for (const s of run.scenarios) {
+        console.log(`  └─ ${s.scenario}: ${s.throughputRps} req/s, p99 ${s.latencyMs.p99}ms, errors ${s.errors}`);
+    }
+}
+for (const failure of failures) {
+    const bound = failure.max !== undefined ? `max ${failure.max}` : `min ${failure.min}`;
+    console.log(`✗ ${failure.module} (${failure.mode}) ${failure.metric}=${failure.actual} violates ${failure.source} ${bound}`);
+}
+console.log(failures.length === 0
+    ? `✓ ${checks.length} checks passed`
+    : `✗ ${failures.length} of ${checks.length} checks failed`);
+process.exit(failures.length === 0 ? 0 : 1);
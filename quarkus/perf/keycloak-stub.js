@@ -0,0 +1,185 @@
+// Minimal Keycloak stand-in for the performance suite.
+//
+// Serves the realm endpoints the Quarkus playgrounds call (discovery, JWKS,
+// token, userinfo, introspection, logout) for any realm name, signs RS256
+// access tokens the backend accepts, and counts every request so the suite
+// can assert how often each endpoint was hit. No dependencies beyond Node.js.
+//
+// Usage: node keycloak-stub.js [--port 18080] [--latency-ms 0]
+
+const http = require('http');
+const crypto = require('crypto');
+
+const args = parseArgs(process.argv.slice(2));
+const PORT = parseInt(args.port || process.env.STUB_PORT || '18080', 10);
+const LATENCY_MS = parseInt(args['latency-ms'] || process.env.STUB_LATENCY_MS || '0', 10);
+const TOKEN_LIFESPAN = parseInt(args['token-lifespan'] || process.env.STUB_TOKEN_LIFESPAN || '300', 10);
+const BACKEND_CLIENT_ID = process.env.STUB_BACKEND_CLIENT_ID || 'quarkus-oauth-backend';
+
+const { publicKey, privateKey } = crypto.generateKeyPairSync('rsa', { modulusLength: 2048 });
+const KID = crypto.randomBytes(8).toString('hex');
+const JWKS = JSON.stringify({
+    keys: [{ ...publicKey.export({ format: 'jwk' }), kid: KID, alg: 'RS256', use: 'sig' }]
+});
+
+const counters = {};
+
+function parseArgs(argv) {
+    const parsed = {};
+    for (let i = 0; i < argv.length; i++) {
+        if (argv[i].startsWith('--')) {
+            parsed[argv[i].slice(2)] = argv[i + 1];
+            i++;
+        }
+    }
+    return parsed;
+}
+
+function base64url(input) {
+    return Buffer.from(input).toString('base64url');
+}
+
+function issuerOf(req, realm) {
+    return `http://${req.headers.host}/realms/${realm}`;
+}
+
+function signToken(issuer, clientId, username) {
+    const now = Math.floor(Date.now() / 1000);
+    const header = { alg: 'RS256', typ: 'JWT', kid: KID };
+    const payload = {
+        exp: now + TOKEN_LIFESPAN,
+        iat: now,
+        jti: crypto.randomUUID(),
+        iss: issuer,
+        aud: [BACKEND_CLIENT_ID, 'account'],
+        sub: crypto.createHash('sha256').update(username).digest('hex').slice(0, 32),
+        typ: 'Bearer',
+        azp: clientId,
+        scope: 'openid profile email',
+        preferred_username: username,
+        resource_access: { [BACKEND_CLIENT_ID]: { roles: ['user'] } }
+    };
+    const signingInput = `${base64url(JSON.stringify(header))}.${base64url(JSON.stringify(payload))}`;
+    const signature = crypto.sign('RSA-SHA256', Buffer.from(signingInput), privateKey).toString('base64url');
+    return { token: `${signingInput}.${signature}`, payload };
+}
+
+function decodePayload(token) {
+    try {
+        return JSON.parse(Buffer.from(token.split('.')[1], 'base64url').toString());
+    } catch (e) {
+        return null;
+    }
+}
+
+function discovery(issuer) {
+    const oidc = `${issuer}/protocol/openid-connect`;
+    return JSON.stringify({
+        issuer,
+        authorization_endpoint: `${oidc}/auth`,
+        token_endpoint: `${oidc}/token`,
+        introspection_endpoint: `${oidc}/token/introspect`,
+        userinfo_endpoint: `${oidc}/userinfo`,
+        end_session_endpoint: `${oidc}/logout`,
+        jwks_uri: `${oidc}/certs`,
+        grant_types_supported: ['authorization_code', 'refresh_token', 'client_credentials', 'password'],
+        response_types_supported: ['code'],
+        subject_types_supported: ['public'],
+        id_token_signing_alg_values_supported: ['RS256'],
+        token_endpoint_auth_methods_supported: ['client_secret_basic', 'client_secret_post']
+    });
+}
+
+function send(res, status, body, contentType = 'application/json') {
+    res.writeHead(status, { 'Content-Type': contentType, 'Content-Length': Buffer.byteLength(body) });
+    res.end(body);
+}
+
+function readBody(req) {
+    return new Promise(resolve => {
+        const chunks = [];
+        req.on('data', chunk => chunks.push(chunk));
+        req.on('end', () => resolve(Buffer.concat(chunks).toString()));
+    });
+}
+
+function bearer(req) {
+    const header = req.headers.authorization || '';
+    return header.startsWith('Bearer ') ? header.slice(7) : null;
+}
+
+async function handle(req, res) {
+    const url = new URL(req.url, `http://${req.headers.host}`);
+
+    if (url.pathname === '/_stats') {
+        if (req.method === 'DELETE') {
+            Object.keys(counters).forEach(key => delete counters[key]);
+        }
+        return send(res, 200, JSON.stringify(counters));
+    }
+
+    const match = url.pathname.match(/^\/realms\/([^/]+)(\/.*)?$/);
+    if (!match) {
+        return send(res, 404, '{"error": "Not found"}');
+    }
+    const issuer = issuerOf(req, match[1]);
+    const route = match[2] || '/';
+    const endpoint = `${req.method} ${route}`;
+    counters[endpoint] = (counters[endpoint] || 0) + 1;
+
+    if (LATENCY_MS > 0) {
+        await new Promise(resolve => setTimeout(resolve, LATENCY_MS));
+    }
+
+    if (route === '/' || route === '') {
+        return send(res, 200, JSON.stringify({ realm: match[1] }));
+    }
+    if (route === '/.well-known/openid-configuration') {
+        return send(res, 200, discovery(issuer));
+    }
+    if (route === '/protocol/openid-connect/certs') {
+        return send(res, 200, JWKS);
+    }
+    if (route === '/protocol/openid-connect/token' && req.method === 'POST') {
+        const form = new URLSearchParams(await readBody(req));
+        const basic = (req.headers.authorization || '').startsWith('Basic ')
+            ? Buffer.from(req.headers.authorization.slice(6), 'base64').toString().split(':')[0]
+            : null;
+        const clientId = form.get('client_id') || basic || 'perf-client';
+        const username = form.get('grant_type') === 'client_credentials'
+            ? `service-account-${clientId}`
+            : (form.get('username') || 'perf-user');
+        const { token } = signToken(issuer, clientId, username);
+        return send(res, 200, JSON.stringify({
+            access_token: token,
+            expires_in: TOKEN_LIFESPAN,
+            refresh_expires_in: 1800,
+            refresh_token: crypto.randomBytes(24).toString('base64url'),
+            token_type: 'Bearer',
+            scope: 'openid profile email'
+        }));
+    }
+    if (route === '/protocol/openid-connect/token/introspect' && req.method === 'POST') {
+        const form = new URLSearchParams(await readBody(req));
+        const payload = decodePayload(form.get('token') || '');
+        const active = payload !== null && payload.exp > Date.now() / 1000;
+        return send(res, 200, JSON.stringify(active ? { ...payload, active: true, client_id: payload.azp } : { active: false }));
+    }
+    if (route === '/protocol/openid-connect/userinfo') {
+        const payload = decodePayload(bearer(req) || '');
+        if (payload === null) {
+            return send(res, 401, '{"error": "invalid_token"}');
+        }
+        return send(res, 200, JSON.stringify({ sub: payload.sub, preferred_username: payload.preferred_username }));
+    }
+    if (route === '/protocol/openid-connect/logout') {
+        return send(res, 200, '<html><body>Logged out</body></html>', 'text/html');
+    }
+    return send(res, 404, '{"error": "Not found"}');
+}
+
+http.createServer((req, res) => {
+    handle(req, res).catch(err => send(res, 500, JSON.stringify({ error: err.message })));
+}).listen(PORT, () => {
+    console.log(`Keycloak stand-in listening on http://localhost:${PORT}/realms/<realm> (latency ${LATENCY_MS}ms)`);
+});
@@ -0,0 +1,219 @@
+// Load driver for the performance suite. No dependencies beyond Node.js.
+//
+// Subcommands (all print a single JSON document on stdout):
+//   first-request --url <url> --since <epoch ms> [--timeout-ms 120000]
+//       Polls the URL until it answers 2xx and reports the time elapsed since
+//       the process was launched (time-to-first-request).
+//   rss --pid <pid>
+//       Reports the resident set size of a process in MiB.
+//   load --base <url> --module <name> --scenario <name> [--scenarios scenarios.json]
+//        [--concurrency 32] [--duration 30] [--warmup 5] [--pid <pid>]
+//        [--issuer <url>] [--token <access token>] [--stub <stand-in base url>]
+//       Drives a closed-loop load (fixed number of in-flight requests) against
+//       one scenario and reports throughput, latency percentiles, status codes,
+//       the RSS of --pid sampled while the load runs and, with --stub, how many
+//       calls each Keycloak stand-in endpoint received during the measured run.
+
+const http = require('http');
+const fs = require('fs');
+const path = require('path');
+const { execFileSync } = require('child_process');
+
+function parseArgs(argv) {
+    const parsed = { _: [] };
+    for (let i = 0; i < argv.length; i++) {
+        if (argv[i].startsWith('--')) {
+            parsed[argv[i].slice(2)] = argv[i + 1];
+            i++;
+        } else {
+            parsed._.push(argv[i]);
+        }
+    }
+    return parsed;
+}
+
+function rssMb(pid) {
+    try {
+        const status = fs.readFileSync(`/proc/${pid}/status`, 'utf8');
+        const match = status.match(/^VmRSS:\s+(\d+)\s+kB/m);
+        if (match) {
+            return parseInt(match[1], 10) / 1024;
+        }
+    } catch (e) {
+        // Not Linux (or the process is gone): fall back to ps
+    }
+    try {
+        return parseInt(execFileSync('ps', ['-o', 'rss=', '-p', String(pid)]).toString().trim(), 10) / 1024;
+    } catch (e) {
+        return null;
+    }
+}
+
+function round(value, digits = 2) {
+    return value === null || value === undefined ? null : Math.round(value * 10 ** digits) / 10 ** digits;
+}
+
+function percentile(sorted, p) {
+    if (sorted.length === 0) {
+        return null;
+    }
+    return sorted[Math.min(sorted.length - 1, Math.ceil((p / 100) * sorted.length) - 1)];
+}
+
+function request(agent, target, options) {
+    return new Promise(resolve => {
+        const req = http.request(target, { ...options, agent }, res => {
+            res.resume();
+            res.on('end', () => resolve(res.statusCode));
+        });
+        req.on('error', () => resolve(0));
+        req.end(options.body);
+    });
+}
+
+async function firstRequest(args) {
+    const since = parseInt(args.since, 10);
+    const deadline = since + parseInt(args['timeout-ms'] || '120000', 10);
+    const agent = new http.Agent({ keepAlive: false });
+    while (Date.now() < deadline) {
+        const status = await request(agent, args.url, { method: 'GET' });
+        if (status >= 200 && status < 300) {
+            return { url: args.url, ttfrMs: Date.now() - since };
+        }
+        await new Promise(resolve => setTimeout(resolve, 5));
+    }
+    throw new Error(`No successful response from ${args.url} within ${args['timeout-ms'] || 120000}ms`);
+}
+
+function resolveScenario(args) {
+    const file = args.scenarios || path.join(__dirname, 'scenarios.json');
+    const module = JSON.parse(fs.readFileSync(file, 'utf8'))[args.module];
+    if (!module) {
+        throw new Error(`Unknown module ${args.module} in ${file}`);
+    }
+    const scenario = module.scenarios.find(s => s.name === args.scenario);
+    if (!scenario) {
+        throw new Error(`Unknown scenario ${args.scenario} for module ${args.module}`);
+    }
+    const substitute = value => value.split('${ISSUER}').join(args.issuer || '');
+    const headers = {};
+    let body;
+    if (scenario.json) {
+        body = substitute(JSON.stringify(scenario.json));
+        headers['Content-Type'] = 'application/json';
+        headers['Content-Length'] = Buffer.byteLength(body);
+    }
+    if (scenario.auth) {
+        headers.Authorization = `Bearer ${args.token}`;
+    }
+    return { url: args.base + substitute(scenario.path), method: scenario.method || 'GET', headers, body };
+}
+
+function stubStats(stub) {
+    return new Promise(resolve => {
+        http.get(`${stub}/_stats`, res => {
+            let body = '';
+            res.on('data', chunk => body += chunk);
+            res.on('end', () => resolve(JSON.parse(body)));
+        }).on('error', () => resolve(null));
+    });
+}
+
+async function drive(agent, target, concurrency, durationMs, latencies, statusCodes) {
+    const deadline = Date.now() + durationMs;
+    const worker = async () => {
+        while (Date.now() < deadline) {
+            const start = process.hrtime.bigint();
+            const status = await request(agent, target.url, target);
+            if (latencies) {
+                latencies.push(Number(process.hrtime.bigint() - start) / 1e6);
+                statusCodes[status] = (statusCodes[status] || 0) + 1;
+            }
+        }
+    };
+    await Promise.all(Array.from({ length: concurrency }, worker));
+}
+
+async function load(args) {
+    const target = resolveScenario(args);
+    const concurrency = parseInt(args.concurrency || '32', 10);
+    const durationSec = parseFloat(args.duration || '30');
+    const warmupSec = parseFloat(args.warmup || '5');
+    const agent = new http.Agent({ keepAlive: true, maxSockets: concurrency });
+
+    await drive(agent, target, concurrency, warmupSec * 1000, null, null);
+
+    const rssSamples = [];
+    const sampler = args.pid ? setInterval(() => {
+        const sample = rssMb(args.pid);
+        if (sample !== null) {
+            rssSamples.push(sample);
+        }
+    }, 200) : null;
+
+    const latencies = [];
+    const statusCodes = {};
+    const stubBefore = args.stub ? await stubStats(args.stub) : null;
+    const started = process.hrtime.bigint();
+    await drive(agent, target, concurrency, durationSec * 1000, latencies, statusCodes);
+    const elapsedSec = Number(process.hrtime.bigint() - started) / 1e9;
+    const stubAfter = args.stub ? await stubStats(args.stub) : null;
+    if (sampler) {
+        clearInterval(sampler);
+    }
+    agent.destroy();
+
+    latencies.sort((a, b) => a - b);
+    const errors = Object.entries(statusCodes)
+        .filter(([status]) => status < 200 || status >= 400)
+        .reduce((sum, [, count]) => sum + count, 0);
+    return {
+        scenario: args.scenario,
+        method: target.method,
+        url: target.url,
+        concurrency,
+        durationSec: round(elapsedSec),
+        requests: latencies.length,
+        errors,
+        errorRate: round(latencies.length ? errors / latencies.length : 0, 4),
+        throughputRps: round(latencies.length / elapsedSec, 1),
+        latencyMs: {
+            mean: round(latencies.reduce((sum, v) => sum + v, 0) / (latencies.length || 1), 3),
+            p50: round(percentile(latencies, 50), 3),
+            p90: round(percentile(latencies, 90), 3),
+            p99: round(percentile(latencies, 99), 3),
+            max: round(latencies[latencies.length - 1], 3)
+        },
+        rssMb: {
+            avg: round(rssSamples.length ? rssSamples.reduce((sum, v) => sum + v, 0) / rssSamples.length : null, 1),
+            peak: round(rssSamples.length ? Math.max(...rssSamples) : null, 1)
+        },
+        statusCodes,
+        stubCalls: stubBefore && stubAfter
+            ? Object.fromEntries(Object.entries(stubAfter)
+                .map(([endpoint, count]) => [endpoint, count - (stubBefore[endpoint] || 0)])
+                .filter(([, delta]) => delta > 0))
+            : null
+    };
+}
+
+async function main() {
+    const args = parseArgs(process.argv.slice(2));
+    const command = args._[0];
+    let result;
+    if (command === 'first-request') {
+        result = await firstRequest(args);
+    } else if (command === 'rss') {
+        result = { pid: parseInt(args.pid, 10), rssMb: round(rssMb(args.pid), 1) };
+    } else if (command === 'load') {
+        result = await load(args);
+    } else {
+        throw new Error(`Unknown command: ${command || '(none)'}`);
+    }
+    console.log(JSON.stringify(result));
+}
+
+main().catch(err => {
+    console.error(err.message);
+    process.exit(1);
+});
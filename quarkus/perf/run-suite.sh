@@ -0,0 +1,239 @@
+#!/usr/bin/env bash
+#
+# JVM vs native performance suite for the Quarkus playgrounds.
+#
+# Builds each module in JVM and native form, runs it as a local process against
+# the Keycloak stand-in (keycloak-stub.js) and records time-to-first-request,
+# RSS at idle and under load, throughput and latency percentiles per scenario.
+# Reports are written as JSON and checked against thresholds.json (and an
+# optional baseline summary); the script exits non-zero on any violation.
+#
+# Usage: ./run-suite.sh [--modules "01-OIDC frontend backend"] [--modes "jvm native"]
+#                       [--skip-build] [--concurrency 32] [--duration 30] [--warmup 5]
+#                       [--baseline baseline.json] [--reports <dir>]
+#
+# Environment:
+#   PERF_JVM_OPTS     JVM options (default mirrors Dockerfile.jvm under a 256Mi limit)
+#   PERF_NATIVE_OPTS  Native runtime options (default: same heap ceiling as the JVM)
+#   PERF_APP_OPTS     Extra -D properties passed to every module
+#   PERF_CPUS         CPU list to pin the module to with taskset (e.g. "0" for one core)
+#   NATIVE_BUILD_ARGS Extra Maven arguments for native builds
+#   STUB_LATENCY_MS   Artificial latency added by the Keycloak stand-in
+
+set -euo pipefail
+
+PERF_DIR="$(cd "$(dirname "$0")" && pwd)"
+QUARKUS_DIR="$(dirname "$PERF_DIR")"
+
+MODULES="01-OIDC frontend backend"
+MODES="jvm native"
+SKIP_BUILD=false
+CONCURRENCY=32
+DURATION=30
+WARMUP=5
+BASELINE="$PERF_DIR/baseline.json"
+REPORTS_DIR="$PERF_DIR/reports/$(date +%Y%m%d-%H%M%S)"
+
+while [[ $# -gt 0 ]]; do
+    case "$1" in
+        --modules) MODULES="$2"; shift 2 ;;
+        --modes) MODES="$2"; shift 2 ;;
+        --skip-build) SKIP_BUILD=true; shift ;;
+        --concurrency) CONCURRENCY="$2"; shift 2 ;;
+        --duration) DURATION="$2"; shift 2 ;;
+        --warmup) WARMUP="$2"; shift 2 ;;
+        --baseline) BASELINE="$2"; shift 2 ;;
+        --reports) REPORTS_DIR="$2"; shift 2 ;;
+        *) echo "Unknown option: $1" >&2; exit 2 ;;
+    esac
+done
+
+STUB_PORT="${STUB_PORT:-18080}"
+APP_PORT="${APP_PORT:-18180}"
+BACKEND_PORT="${BACKEND_PORT:-18181}"
+ISSUER="http://localhost:${STUB_PORT}/realms/demo"
+IDLE_SETTLE="${PERF_IDLE_SETTLE:-10}"
+
+# Dockerfile.jvm sizes the heap at 50% of the container limit (256Mi) with a 25% initial heap
+PERF_JVM_OPTS="${PERF_JVM_OPTS:--Xmx128m -Xms32m}"
+PERF_NATIVE_OPTS="${PERF_NATIVE_OPTS:--Xmx128m}"
+# No OTLP collector runs next to the suite; exporting to a dead endpoint would only add retry noise
+PERF_APP_OPTS="${PERF_APP_OPTS:--Dquarkus.otel.sdk.disabled=true}"
+
+mkdir -p "$REPORTS_DIR"
+PIDS=()
+
+cleanup() {
+    for pid in "${PIDS[@]:-}"; do
+        [[ -n "$pid" ]] && kill "$pid" 2>/dev/null || true
+    done
+}
+trap cleanup EXIT
+
+log() {
+    echo "[perf] $*"
+}
+
+module_dir() {
+    node -e "console.log(require('$PERF_DIR/scenarios.json')['$1'].dir)"
+}
+
+module_props() {
+    local module="$1"
+    local issuer_pattern="http://localhost:${STUB_PORT}/realms/[^/]+"
+    case "$module" in
+        01-OIDC)
+            echo "-Dkeycloak.url=http://localhost:${STUB_PORT} -Dkeycloak.issuer=${ISSUER} -Dissuers.allowed-pattern=${issuer_pattern}" ;;
+        frontend)
+            echo "-Dquarkus.oidc.auth-server-url=${ISSUER} -Doauth.service.url=http://localhost:${BACKEND_PORT} -Dissuers.allowed-pattern=${issuer_pattern}" \
+                "-Dservice-token.enabled=true -Dservice-token.client-secret=perf-secret" ;;
+        backend)
+            echo "-Dquarkus.oidc.auth-server-url=${ISSUER}" ;;
+    esac
+}
+
+build() {
+    local module="$1" mode="$2"
+    local dir="$QUARKUS_DIR/$(module_dir "$module")"
+    log "Building $module ($mode)"
+    if [[ "$mode" == "native" ]]; then
+        (cd "$dir" && ./mvnw -B -q package -DskipTests -Dnative ${NATIVE_BUILD_ARGS:-})
+    else
+        (cd "$dir" && ./mvnw -B -q package -DskipTests)
+    fi
+}
+
+# Starts a module in the background and prints its PID
+launch() {
+    local module="$1" mode="$2" port="$3" logfile="$4"
+    local dir="$QUARKUS_DIR/$(module_dir "$module")"
+    local pin=()
+    if [[ -n "${PERF_CPUS:-}" ]] && command -v taskset >/dev/null; then
+        pin=(taskset -c "$PERF_CPUS")
+    fi
+    local props
+    # The backend runs next to the frontend: give each process its own management interface port too
+    props="-Dquarkus.http.port=${port} -Dquarkus.management.port=$((port + 100)) $(module_props "$module") ${PERF_APP_OPTS}"
+    if [[ "$mode" == "native" ]]; then
+        local runner
+        runner="$(ls "$dir"/target/*-runner 2>/dev/null | head -1)"
+        [[ -x "$runner" ]] || { echo "No native runner in $dir/target (build with --modes native first)" >&2; return 1; }
+        # shellcheck disable=SC2086
+        ${pin[@]+"${pin[@]}"} "$runner" $PERF_NATIVE_OPTS $props >"$logfile" 2>&1 &
+    else
+        [[ -f "$dir/target/quarkus-app/quarkus-run.jar" ]] || { echo "No quarkus-run.jar in $dir/target" >&2; return 1; }
+        # shellcheck disable=SC2086
+        ${pin[@]+"${pin[@]}"} java $PERF_JVM_OPTS $props -jar "$dir/target/quarkus-app/quarkus-run.jar" >"$logfile" 2>&1 &
+    fi
+    echo $!
+}
+
+stop() {
+    local pid="$1"
+    kill "$pid" 2>/dev/null || true
+    while kill -0 "$pid" 2>/dev/null; do
+        sleep 0.1
+    done
+}
+
+now_ms() {
+    node -e 'console.log(Date.now())'
+}
+
+fetch_token() {
+    curl -sf -X POST "${ISSUER}/protocol/openid-connect/token" \
+        -d grant_type=password -d client_id=perf-client -d username=perf-user \
+        | node -e 'let s="";process.stdin.on("data",d=>s+=d).on("end",()=>console.log(JSON.parse(s).access_token))'
+}
+
+run_module() {
+    local module="$1" mode="$2"
+    local base="http://localhost:${APP_PORT}"
+    local work="$REPORTS_DIR/.work-$module-$mode"
+    mkdir -p "$work"
+
+    local backend_pid=""
+    if [[ "$module" == "frontend" ]]; then
+        backend_pid="$(launch backend "$mode" "$BACKEND_PORT" "$REPORTS_DIR/backend-for-frontend-$mode.log")"
+        PIDS+=("$backend_pid")
+        node "$PERF_DIR/loadgen.js" first-request --url "http://localhost:${BACKEND_PORT}/public" --since "$(now_ms)" >/dev/null
+    fi
+
+    log "Starting $module ($mode)"
+    local since pid
+    since="$(now_ms)"
+    pid="$(launch "$module" "$mode" "$APP_PORT" "$REPORTS_DIR/$module-$mode.log")"
+    PIDS+=("$pid")
+
+    local probe
+    probe="$(node -e "console.log(require('$PERF_DIR/scenarios.json')['$module'].probe)")"
+    node "$PERF_DIR/loadgen.js" first-request --url "$base$probe" --since "$since" >"$work/ttfr.json"
+    log "  └─ first request: $(cat "$work/ttfr.json")"
+
+    sleep "$IDLE_SETTLE"
+    node "$PERF_DIR/loadgen.js" rss --pid "$pid" >"$work/idle.json"
+    log "  └─ idle RSS: $(cat "$work/idle.json")"
+
+    local token scenario
+    token="$(fetch_token)"
+    for scenario in $(node -e "require('$PERF_DIR/scenarios.json')['$module'].scenarios.forEach(s => console.log(s.name))"); do
+        log "  └─ load: $scenario (${CONCURRENCY} in flight, ${DURATION}s)"
+        node "$PERF_DIR/loadgen.js" load --module "$module" --scenario "$scenario" --base "$base" \
+            --issuer "$ISSUER" --token "$token" --pid "$pid" --stub "http://localhost:${STUB_PORT}" \
+            --concurrency "$CONCURRENCY" --duration "$DURATION" --warmup "$WARMUP" >"$work/scenario-$scenario.json"
+    done
+
+    stop "$pid"
+    if [[ -n "$backend_pid" ]]; then
+        stop "$backend_pid"
+    fi
+
+    node - "$work" "$REPORTS_DIR/$module-$mode.json" "$module" "$mode" "$CONCURRENCY" "$DURATION" "$WARMUP" "$PERF_JVM_OPTS" "$PERF_NATIVE_OPTS" <<'EOF'
+const fs = require('fs');
+const os = require('os');
+const path = require('path');
+const [work, out, module, mode, concurrency, duration, warmup, jvmOpts, nativeOpts] = process.argv.slice(2);
+const read = file => JSON.parse(fs.readFileSync(path.join(work, file), 'utf8'));
+const scenarios = fs.readdirSync(work).filter(f => f.startsWith('scenario-')).sort().map(read);
+const peaks = scenarios.map(s => s.rssMb.peak).filter(v => v !== null);
+fs.writeFileSync(out, JSON.stringify({
+    module,
+    mode,
+    finishedAt: new Date().toISOString(),
+    host: { platform: os.platform(), arch: os.arch(), cpus: os.cpus().length, node: process.version },
+    settings: {
+        concurrency: Number(concurrency),
+        durationSec: Number(duration),
+        warmupSec: Number(warmup),
+        runtimeOptions: mode === 'native' ? nativeOpts : jvmOpts
+    },
+    ttfrMs: read('ttfr.json').ttfrMs,
+    idleRssMb: read('idle.json').rssMb,
+    loadRssMb: peaks.length ? Math.max(...peaks) : null,
+    scenarios
+}, null, 2));
+EOF
+    rm -rf "$work"
+}
+
+log "Reports: $REPORTS_DIR"
+node "$PERF_DIR/keycloak-stub.js" --port "$STUB_PORT" >"$REPORTS_DIR/keycloak-stub.log" 2>&1 &
+PIDS+=("$!")
+node "$PERF_DIR/loadgen.js" first-request --url "${ISSUER}/.well-known/openid-configuration" --since "$(now_ms)" >/dev/null
+
+for module in $MODULES; do
+    for mode in $MODES; do
+        if [[ "$SKIP_BUILD" == false ]]; then
+            build "$module" "$mode"
+            # The frontend needs a backend of the same flavour to call
+            if [[ "$module" == "frontend" ]]; then
+                build backend "$mode"
+            fi
+        fi
+        run_module "$module" "$mode"
+    done
+done
+
+curl -sf "http://localhost:${STUB_PORT}/_stats" >"$REPORTS_DIR/keycloak-stub-requests.json" || true
+
+node "$PERF_DIR/check-thresholds.js" --reports "$REPORTS_DIR" --baseline "$BASELINE"